@@ -0,0 +1,66 @@
+package io.github.mooy1.infinityexpansion;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
+
+/**
+ * The mock server shared by the benchmarks in a fork, with a world to place machines in
+ */
+public final class BenchmarkServer {
+
+    private static ServerMock server;
+    private static World world;
+
+    private BenchmarkServer() { }
+
+    public static synchronized void start() {
+        if (server == null) {
+            server = MockBukkit.mock();
+            MockBukkit.load(Slimefun.class);
+            MockBukkit.load(InfinityExpansion.class);
+            world = server.addSimpleWorld("benchmarks");
+            if (BlockStorage.getStorage(world) == null) {
+                new BlockStorage(world);
+            }
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            MockBukkit.unmock();
+            server = null;
+            world = null;
+        }
+    }
+
+    @Nonnull
+    public static World world() {
+        return world;
+    }
+
+    /**
+     * Places a slimefun block at the given x and returns its menu
+     */
+    @Nonnull
+    public static BlockMenu place(@Nonnull SlimefunItemStack item, int x) {
+        Block b = world.getBlockAt(x, 64, 0);
+        b.setType(item.getType());
+        BlockStorage.addBlockInfo(b, "id", item.getItemId(), true);
+        BlockMenu menu = BlockStorage.getInventory(b);
+        if (menu == null) {
+            menu = new BlockMenu(BlockMenuPreset.getPreset(item.getItemId()), b.getLocation());
+        }
+        return menu;
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.github.mooy1.infinityexpansion.categories;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+
+/**
+ * Benchmarks the move behind InfinityGroup.moveRecipe, which needs a player and an open workbench otherwise
+ */
+public class RecipeMoverBenchmark extends AbstractBenchmark {
+
+    private static final Material[] INGREDIENTS = {
+            Material.IRON_INGOT, Material.GOLD_INGOT, Material.DIAMOND,
+            Material.EMERALD, Material.REDSTONE, Material.LAPIS_LAZULI
+    };
+
+    private ItemStack[] recipe;
+    private ItemStack[] contents;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+        this.recipe = new ItemStack[36];
+        this.contents = new ItemStack[36];
+        for (int i = 0 ; i < 36 ; i++) {
+            this.recipe[i] = new ItemStack(INGREDIENTS[i % INGREDIENTS.length]);
+            this.contents[i] = new ItemStack(INGREDIENTS[i % INGREDIENTS.length], 64);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public int moveMax() {
+        for (ItemStack item : this.contents) {
+            item.setAmount(64);
+        }
+        return RecipeMover.move(this.recipe, this.contents, new ItemStack[36], 64);
+    }
+
+    @Benchmark
+    public int moveOne() {
+        for (ItemStack item : this.contents) {
+            item.setAmount(64);
+        }
+        return RecipeMover.move(this.recipe, this.contents, new ItemStack[36], 1);
+    }
+
+}
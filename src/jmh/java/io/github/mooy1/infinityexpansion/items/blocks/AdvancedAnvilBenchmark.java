@@ -0,0 +1,54 @@
+package io.github.mooy1.infinityexpansion.items.blocks;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+
+public class AdvancedAnvilBenchmark extends AbstractBenchmark {
+
+    private ItemStack sword;
+    private ItemStack upgrade;
+    private ItemStack book;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+
+        this.sword = new ItemStack(Material.DIAMOND_SWORD);
+        this.sword.addUnsafeEnchantment(Enchantment.DAMAGE_ALL, 5);
+        this.sword.addUnsafeEnchantment(Enchantment.LOOT_BONUS_MOBS, 3);
+        this.sword.addUnsafeEnchantment(Enchantment.DURABILITY, 3);
+
+        this.upgrade = this.sword.clone();
+
+        this.book = new ItemStack(Material.ENCHANTED_BOOK);
+        EnchantmentStorageMeta meta = (EnchantmentStorageMeta) this.book.getItemMeta();
+        meta.addStoredEnchant(Enchantment.FIRE_ASPECT, 2, true);
+        meta.addStoredEnchant(Enchantment.DAMAGE_ALL, 5, true);
+        this.book.setItemMeta(meta);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public ItemStack toolOntoTool() {
+        return AdvancedAnvil.getOutput(this.sword, this.upgrade);
+    }
+
+    @Benchmark
+    public ItemStack bookOntoTool() {
+        return AdvancedAnvil.getOutput(this.sword, this.book);
+    }
+
+}
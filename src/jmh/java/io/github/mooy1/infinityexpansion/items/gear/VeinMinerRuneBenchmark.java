@@ -0,0 +1,53 @@
+package io.github.mooy1.infinityexpansion.items.gear;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+
+public class VeinMinerRuneBenchmark extends AbstractBenchmark {
+
+    private Block start;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+        World world = BenchmarkServer.world();
+
+        // a 5x5x5 cube of ore, larger than one vein can be
+        for (int x = 0 ; x < 5 ; x++) {
+            for (int y = 0 ; y < 5 ; y++) {
+                for (int z = 0 ; z < 5 ; z++) {
+                    world.getBlockAt(100 + x, 32 + y, z).setType(Material.IRON_ORE);
+                }
+            }
+        }
+        this.start = world.getBlockAt(102, 34, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public Set<Block> getVein() {
+        Location l = this.start.getLocation();
+        Set<Block> found = new HashSet<>();
+        Set<Location> checked = new HashSet<>();
+        checked.add(l);
+        VeinMinerRune.getVein(checked, found, l, this.start);
+        return found;
+    }
+
+}
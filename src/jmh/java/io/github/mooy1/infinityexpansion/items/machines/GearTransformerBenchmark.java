@@ -0,0 +1,44 @@
+package io.github.mooy1.infinityexpansion.items.machines;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+public class GearTransformerBenchmark extends AbstractBenchmark {
+
+    private GearTransformer transformer;
+    private BlockMenu menu;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+        this.transformer = (GearTransformer) SlimefunItem.getById(Machines.GEAR_TRANSFORMER.getItemId());
+        this.menu = BenchmarkServer.place(Machines.GEAR_TRANSFORMER, 0);
+
+        // a valid tool and material with a blocked output, so the lookups run without changing the menu
+        int[] input = this.transformer.getInputSlots();
+        this.menu.replaceExistingItem(input[0], new ItemStack(Material.IRON_PICKAXE));
+        this.menu.replaceExistingItem(input[1], new ItemStack(Material.DIAMOND, 64));
+        this.menu.replaceExistingItem(this.transformer.getOutputSlots()[0], new ItemStack(Material.STONE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public BlockMenu update() {
+        this.transformer.update(this.menu);
+        return this.menu;
+    }
+
+}
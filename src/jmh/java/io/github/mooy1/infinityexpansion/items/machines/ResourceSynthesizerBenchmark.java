@@ -0,0 +1,74 @@
+package io.github.mooy1.infinityexpansion.items.machines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+import io.github.mooy1.infinityexpansion.items.materials.Singularity;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+public class ResourceSynthesizerBenchmark extends AbstractBenchmark {
+
+    private ResourceSynthesizer synthesizer;
+    private BlockMenu menu;
+    private Block block;
+    private SlimefunItemStack input1;
+    private SlimefunItemStack input2;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+
+        List<SlimefunItemStack> singularities = new ArrayList<>();
+        for (SlimefunItem item : Slimefun.getRegistry().getAllSlimefunItems()) {
+            if (item instanceof Singularity) {
+                singularities.add((SlimefunItemStack) item.getItem());
+            }
+        }
+
+        // every pair of singularities, like TestResourceSynthesizer
+        List<SlimefunItemStack> triples = new ArrayList<>();
+        for (int i = 0 ; i < singularities.size() ; i++) {
+            for (int j = i + 1 ; j < singularities.size() ; j++) {
+                triples.add(singularities.get(i));
+                triples.add(singularities.get(j));
+                triples.add(singularities.get((i + j) % singularities.size()));
+            }
+        }
+
+        this.synthesizer = ((ResourceSynthesizer) SlimefunItem.getById(Machines.RESOURCE_SYNTHESIZER.getItemId()))
+                .recipes(triples.toArray(new SlimefunItemStack[0]));
+        this.input1 = singularities.get(0);
+        this.input2 = singularities.get(1);
+        this.menu = BenchmarkServer.place(Machines.RESOURCE_SYNTHESIZER, 0);
+        this.block = this.menu.getBlock();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public boolean process() {
+        // refill the inputs and empty the output so every call synthesizes
+        int[] input = this.synthesizer.getInputSlots();
+        this.menu.replaceExistingItem(input[0], this.input1);
+        this.menu.replaceExistingItem(input[1], this.input2);
+        for (int slot : this.synthesizer.getOutputSlots()) {
+            this.menu.replaceExistingItem(slot, null);
+        }
+        return this.synthesizer.work(this.block, this.menu);
+    }
+
+}
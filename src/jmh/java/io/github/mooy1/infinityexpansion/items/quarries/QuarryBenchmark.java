@@ -0,0 +1,44 @@
+package io.github.mooy1.infinityexpansion.items.quarries;
+
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+public class QuarryBenchmark extends AbstractBenchmark {
+
+    private Quarry quarry;
+    private BlockMenu menu;
+    private Block block;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+        this.quarry = (Quarry) SlimefunItem.getById(Quarries.INFINITY_QUARRY.getItemId());
+        this.menu = BenchmarkServer.place(Quarries.INFINITY_QUARRY, 0);
+        this.block = this.menu.getBlock();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public boolean process() {
+        // keep room in the output so every call takes the mining path
+        for (int slot : this.quarry.getOutputSlots()) {
+            if (this.menu.getItemInSlot(slot) != null) {
+                this.menu.replaceExistingItem(slot, null);
+            }
+        }
+        return this.quarry.work(this.block, this.menu);
+    }
+
+}
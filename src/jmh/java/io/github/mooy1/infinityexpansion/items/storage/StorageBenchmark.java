@@ -0,0 +1,83 @@
+package io.github.mooy1.infinityexpansion.items.storage;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.github.mooy1.infinityexpansion.AbstractBenchmark;
+import io.github.mooy1.infinityexpansion.BenchmarkServer;
+import io.github.mooy1.infinityexpansion.items.materials.Materials;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+public class StorageBenchmark extends AbstractBenchmark {
+
+    private ItemStack plain;
+    private ItemStack shulker;
+    private ItemStack slimefun;
+    private ItemStack[] inventory;
+    private StorageCache cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkServer.start();
+
+        this.plain = new ItemStack(Material.COBBLESTONE, 64);
+        this.shulker = new ItemStack(Material.SHULKER_BOX);
+        this.slimefun = Materials.VOID_INGOT.clone();
+
+        StorageUnit unit = (StorageUnit) SlimefunItem.getById(Storage.INFINITY_STORAGE.getItemId());
+        BlockMenu menu = BenchmarkServer.place(Storage.INFINITY_STORAGE, 0);
+        this.cache = unit.getCache(menu.getLocation());
+        if (this.cache == null) {
+            this.cache = new StorageCache(unit, menu);
+        }
+        this.cache.load(this.plain.clone(), this.plain.getItemMeta());
+        this.cache.setAmount(1);
+
+        // a full player inventory, half of it matching
+        this.inventory = new ItemStack[36];
+        for (int i = 0 ; i < this.inventory.length ; i++) {
+            this.inventory[i] = new ItemStack(i % 2 == 0 ? Material.COBBLESTONE : Material.DIRT, 64);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public boolean isBlockedPlain() {
+        return StorageUnit.isBlocked(this.plain);
+    }
+
+    @Benchmark
+    public boolean isBlockedShulker() {
+        return StorageUnit.isBlocked(this.shulker);
+    }
+
+    @Benchmark
+    public boolean isBlockedSlimefun() {
+        return StorageUnit.isBlocked(this.slimefun);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return this.cache.matches(this.plain);
+    }
+
+    @Benchmark
+    public ItemStack[] depositAll() {
+        for (ItemStack item : this.inventory) {
+            item.setAmount(64);
+        }
+        this.cache.setAmount(1);
+        this.cache.depositAll(this.inventory);
+        return this.inventory;
+    }
+
+}
@@ -8,8 +8,10 @@ import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPluginLoader;
 
 import io.github.mooy1.infinityexpansion.categories.Groups;
+import io.github.mooy1.infinityexpansion.commands.Allocations;
 import io.github.mooy1.infinityexpansion.commands.GiveRecipe;
 import io.github.mooy1.infinityexpansion.commands.PrintItem;
+import io.github.mooy1.infinityexpansion.commands.Profile;
 import io.github.mooy1.infinityexpansion.commands.SetData;
 import io.github.mooy1.infinityexpansion.items.Researches;
 import io.github.mooy1.infinityexpansion.items.SlimefunExtension;
@@ -22,6 +24,8 @@ import io.github.mooy1.infinityexpansion.items.mobdata.MobData;
 import io.github.mooy1.infinityexpansion.items.quarries.Quarries;
 import io.github.mooy1.infinityexpansion.items.storage.Storage;
 import io.github.mooy1.infinityexpansion.items.storage.StorageSaveFix;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.mooy1.infinityexpansion.utils.WaterlogTracker;
 import io.github.mooy1.infinitylib.common.Scheduler;
 import io.github.mooy1.infinitylib.core.AbstractAddon;
 import io.github.mooy1.infinitylib.metrics.bukkit.Metrics;
@@ -59,7 +63,12 @@ public final class InfinityExpansion extends AbstractAddon {
         getAddonCommand()
                 .addSub(new GiveRecipe())
                 .addSub(new SetData())
-                .addSub(new PrintItem());
+                .addSub(new PrintItem())
+                .addSub(new Profile())
+                .addSub(new Allocations());
+
+        WaterlogTracker.setup();
+        BlockDataCache.setup();
 
         Groups.setup(this);
         MobData.setup(this);
@@ -79,7 +88,7 @@ public final class InfinityExpansion extends AbstractAddon {
 
     @Override
     public void disable() {
-
+        BlockDataCache.flush();
     }
 
 }
@@ -0,0 +1,111 @@
+package io.github.mooy1.infinityexpansion.categories;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import io.github.mooy1.infinitylib.common.Events;
+import io.github.mooy1.infinitylib.common.Scheduler;
+
+/**
+ * Per player guide state which is removed when the player quits or hasn't used the guide for a while,
+ * and never holds more than a fixed number of players.
+ */
+final class GuideHistory<T> implements Listener {
+
+    private static final long EXPIRY = TimeUnit.MINUTES.toMillis(30);
+    private static final int SWEEP_INTERVAL = 6000;
+
+    private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Supplier<T> factory;
+    private final int maxSize;
+
+    GuideHistory(int maxSize, @Nonnull Supplier<T> factory) {
+        this.maxSize = maxSize;
+        this.factory = factory;
+        Events.registerListener(this);
+        Scheduler.repeat(SWEEP_INTERVAL, this::evictExpired);
+    }
+
+    @Nullable
+    T get(@Nonnull UUID uuid) {
+        Entry<T> entry = this.entries.get(uuid);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - entry.lastAccess > EXPIRY) {
+            this.entries.remove(uuid, entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.value;
+    }
+
+    @Nonnull
+    T getOrCreate(@Nonnull UUID uuid) {
+        T value = get(uuid);
+        if (value == null) {
+            if (this.entries.size() >= this.maxSize) {
+                evictOldest();
+            }
+            Entry<T> entry = new Entry<>(this.factory.get());
+            Entry<T> existing = this.entries.putIfAbsent(uuid, entry);
+            value = existing == null ? entry.value : existing.value;
+        }
+        return value;
+    }
+
+    void remove(@Nonnull UUID uuid) {
+        this.entries.remove(uuid);
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent e) {
+        remove(e.getPlayer().getUniqueId());
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        this.entries.values().removeIf(entry -> now - entry.lastAccess > EXPIRY);
+    }
+
+    private void evictOldest() {
+        evictExpired();
+        while (this.entries.size() >= this.maxSize) {
+            UUID oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<UUID, Entry<T>> entry : this.entries.entrySet()) {
+                if (entry.getValue().lastAccess < oldestAccess) {
+                    oldestAccess = entry.getValue().lastAccess;
+                    oldest = entry.getKey();
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            this.entries.remove(oldest);
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T value;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Entry(T value) {
+            this.value = value;
+        }
+
+    }
+
+}
@@ -1,13 +1,14 @@
 package io.github.mooy1.infinityexpansion.categories;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -20,12 +21,10 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.PlayerInventory;
 
 import io.github.mooy1.infinityexpansion.items.blocks.Blocks;
 import io.github.mooy1.infinityexpansion.items.blocks.InfinityWorkbench;
 import io.github.mooy1.infinitylib.common.Scheduler;
-import io.github.mooy1.infinitylib.common.StackUtils;
 import io.github.mooy1.infinitylib.machines.MenuBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
@@ -34,6 +33,7 @@ import io.github.thebusybiscuit.slimefun4.api.player.PlayerProfile;
 import io.github.thebusybiscuit.slimefun4.api.researches.Research;
 import io.github.thebusybiscuit.slimefun4.core.guide.SlimefunGuideImplementation;
 import io.github.thebusybiscuit.slimefun4.core.guide.SlimefunGuideMode;
+import io.github.thebusybiscuit.slimefun4.core.services.localization.Language;
 import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.collections.Pair;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
@@ -89,7 +89,10 @@ public final class InfinityGroup extends FlexItemGroup {
     );
     private static final ItemStack INFO = new CustomItemStack(Material.CYAN_STAINED_GLASS_PANE, "&3Info");
     private static final SlimefunGuideImplementation GUIDE = Slimefun.getRegistry().getSlimefunGuide(SlimefunGuideMode.SURVIVAL_MODE);
-    private static final Map<UUID, String> HISTORY = new HashMap<>();
+    private static final GuideHistory<Session> SESSIONS = new GuideHistory<>(1000, Session::new);
+    private static final Map<String, me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu> MENUS = new ConcurrentHashMap<>();
+    private static final int MAX_MENUS = 1024;
+    private static final int LISTED = 36;
     private static final LinkedHashMap<String, Pair<SlimefunItemStack, ItemStack[]>> ITEMS = new LinkedHashMap<>();
     private static final List<String> IDS = new ArrayList<>();
 
@@ -117,33 +120,66 @@ public final class InfinityGroup extends FlexItemGroup {
         PlayerProfile.get(player, profile -> Scheduler.run(() -> open(player, new BackEntry(menu, profile, null), true)));
     }
 
-    @SuppressWarnings("deprecation")
     private static void open(@Nonnull Player player, @Nonnull BackEntry entry, boolean useHistory) {
+        Session session = SESSIONS.getOrCreate(player.getUniqueId());
+        session.entry = entry;
 
         if (useHistory) {
-            String id = HISTORY.get(player.getUniqueId());
+            String id = session.recipes.peekLast();
 
             if (id != null) {
-                openInfinityRecipe(player, id, entry);
+                openInfinityRecipe(player, id, session);
                 return;
             }
         }
 
+        // which of the listed items are researched, every combination gets its own menu
+        long unlocked = 0;
+        int i = 0;
+        for (Pair<SlimefunItemStack, ItemStack[]> item : ITEMS.values()) {
+            if (i == LISTED) {
+                break;
+            }
+
+            SlimefunItem sfItem = item.getFirstValue().getItem();
+            if (sfItem == null) {
+                return;
+            }
+
+            Research research = sfItem.getResearch();
+            if (research == null || entry.profile.hasUnlocked(research)) {
+                unlocked |= 1L << i;
+            }
+
+            i++;
+        }
+
+        long researched = unlocked;
+        getMenu("list:" + language(player) + ':' + unlocked, () -> makeList(player, researched)).open(player);
+
+        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
+
+        session.recipes.clear();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Nonnull
+    private static me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu makeList(Player player, long unlocked) {
         me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu menu =
                 new me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu("&bInfinity Recipes");
 
-        if (entry.bench != null) {
-            menu.addMenuClickHandler(1, (player1, i, itemStack, clickAction) -> {
-                entry.bench.open(player1);
-                return false;
-            });
-        }
-        else {
-            menu.addMenuClickHandler(1, (player1, i, itemStack, clickAction) -> {
-                entry.profile.getGuideHistory().goBack(entry.impl);
-                return false;
-            });
-        }
+        menu.addMenuClickHandler(1, (player1, i, itemStack, clickAction) -> {
+            Session session = SESSIONS.get(player1.getUniqueId());
+            if (session != null) {
+                if (session.entry.bench != null) {
+                    session.entry.bench.open(player1);
+                }
+                else {
+                    session.entry.profile.getGuideHistory().goBack(session.entry.impl);
+                }
+            }
+            return false;
+        });
 
         menu.addItem(0, ChestMenuUtils.getBackground(), ChestMenuUtils.getEmptyClickHandler());
         menu.setEmptySlotsClickable(false);
@@ -161,19 +197,16 @@ public final class InfinityGroup extends FlexItemGroup {
         menu.addItem(1, new CustomItemStack(ChestMenuUtils.getBackButton(
                 player, "", ChatColor.GRAY + Slimefun.getLocalization().getMessage(player, "guide.back.guide"))));
 
-        int i = 9;
+        int i = 0;
         for (Pair<SlimefunItemStack, ItemStack[]> item : ITEMS.values()) {
-            if (i == 45) {
+            if (i == LISTED) {
                 break;
             }
 
-            SlimefunItem sfItem = item.getFirstValue().getItem();
-            if (sfItem == null) {
-                return;
-            }
-
+            SlimefunItem sfItem = Objects.requireNonNull(item.getFirstValue().getItem());
             Research research = sfItem.getResearch();
-            if (research != null && !entry.profile.hasUnlocked(research)) {
+
+            if (research != null && (unlocked & 1L << i) == 0) {
                 ItemStack resItem = new CustomItemStack(
                         ChestMenuUtils.getNotResearchedItem(),
                         ChatColor.WHITE + ItemUtils.getItemName(sfItem.getItem()),
@@ -183,14 +216,21 @@ public final class InfinityGroup extends FlexItemGroup {
                         "",
                         "&7Cost: &b" + research.getCost() + " Level(s)"
                 );
-                menu.addItem(i, resItem, (p, slot, item1, action) -> {
-                    research.unlockFromGuide(GUIDE, p, entry.profile, sfItem, Groups.INFINITY, 0);
+                menu.addItem(9 + i, resItem, (p, slot, item1, action) -> {
+                    Session session = SESSIONS.get(p.getUniqueId());
+                    if (session != null) {
+                        research.unlockFromGuide(GUIDE, p, session.entry.profile, sfItem, Groups.INFINITY, 0);
+                    }
                     return false;
                 });
             }
             else {
-                menu.addItem(i, item.getFirstValue(), (p, slot, item1, action) -> {
-                    openInfinityRecipe(p, item.getFirstValue().getItemId(), entry);
+                menu.addItem(9 + i, item.getFirstValue(), (p, slot, item1, action) -> {
+                    Session session = SESSIONS.get(p.getUniqueId());
+                    if (session != null) {
+                        session.push(item.getFirstValue().getItemId());
+                        openInfinityRecipe(p, item.getFirstValue().getItemId(), session);
+                    }
                     return false;
                 });
             }
@@ -198,28 +238,44 @@ public final class InfinityGroup extends FlexItemGroup {
             i++;
         }
 
-        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
-
-        HISTORY.put(player.getUniqueId(), null);
-
-        menu.open(player);
+        return menu;
     }
 
-    @SuppressWarnings("deprecation")
     @ParametersAreNonnullByDefault
-    private static void openInfinityRecipe(Player player, String id, BackEntry entry) {
+    private static void openInfinityRecipe(Player player, String id, Session session) {
         Pair<SlimefunItemStack, ItemStack[]> pair = ITEMS.get(id);
 
         if (pair == null) {
             return;
         }
 
+        boolean bench = session.entry.bench != null;
+        getMenu("recipe:" + language(player) + ':' + bench + ':' + id, () -> makeInfinityRecipe(player, id, pair, bench)).open(player);
+
+        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Nonnull
+    @ParametersAreNonnullByDefault
+    private static me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu makeInfinityRecipe(Player player, String id,
+                                                                                                   Pair<SlimefunItemStack, ItemStack[]> pair, boolean bench) {
         me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu menu =
                 new me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu(Objects.requireNonNull(pair.getFirstValue().getDisplayName()));
         menu.setEmptySlotsClickable(false);
 
         menu.addItem(BACK, ChestMenuUtils.getBackButton(player, ""), (player12, i, itemStack, clickAction) -> {
-            open(player12, entry, false);
+            Session session = SESSIONS.get(player12.getUniqueId());
+            if (session != null) {
+                session.recipes.pollLast();
+                String previous = session.recipes.peekLast();
+                if (previous != null) {
+                    openInfinityRecipe(player12, previous, session);
+                }
+                else {
+                    open(player12, session.entry, false);
+                }
+            }
             return false;
         });
 
@@ -227,15 +283,17 @@ public final class InfinityGroup extends FlexItemGroup {
             ItemStack recipeItem = pair.getSecondValue()[i];
             if (recipeItem != null) {
                 menu.addItem(INFINITY_RECIPE_SLOTS[i], recipeItem, (p, slot, item, action) -> {
+                    Session session = SESSIONS.get(p.getUniqueId());
                     SlimefunItem slimefunItem = SlimefunItem.getByItem(recipeItem);
-                    if (slimefunItem != null && !slimefunItem.isDisabled()) {
+                    if (session != null && slimefunItem != null && !slimefunItem.isDisabled()) {
                         if (slimefunItem.getRecipeType() == InfinityWorkbench.TYPE) {
-                            openInfinityRecipe(p, slimefunItem.getId(), entry);
+                            session.push(slimefunItem.getId());
+                            openInfinityRecipe(p, slimefunItem.getId(), session);
                         }
                         else {
-                            LinkedList<SlimefunItem> list = new LinkedList<>();
-                            list.add(slimefunItem);
-                            openSlimefunRecipe(p, entry, id, list);
+                            session.subRecipes.clear();
+                            session.subRecipes.add(slimefunItem);
+                            openSlimefunRecipe(p, session);
                         }
                     }
                     return false;
@@ -243,20 +301,24 @@ public final class InfinityGroup extends FlexItemGroup {
             }
         }
 
-        if (entry.bench == null) {
+        if (!bench) {
             menu.addItem(INFINITY_BENCH, Blocks.INFINITY_FORGE, (p, slot, item, action) -> {
+                Session session = SESSIONS.get(p.getUniqueId());
                 SlimefunItem slimefunItem = Blocks.INFINITY_FORGE.getItem();
-                if (slimefunItem != null) {
-                    LinkedList<SlimefunItem> list = new LinkedList<>();
-                    list.add(slimefunItem);
-                    openSlimefunRecipe(p, entry, id, list);
+                if (session != null && slimefunItem != null) {
+                    session.subRecipes.clear();
+                    session.subRecipes.add(slimefunItem);
+                    openSlimefunRecipe(p, session);
                 }
                 return false;
             });
         }
         else {
             menu.addItem(INFINITY_BENCH, BENCH, (p, slot, item, action) -> {
-                moveRecipe(p, entry.bench, pair, action.isRightClicked());
+                Session session = SESSIONS.get(p.getUniqueId());
+                if (session != null && session.entry.bench != null) {
+                    moveRecipe(p, session.entry.bench, pair, action.isRightClicked());
+                }
                 return false;
             });
         }
@@ -264,15 +326,19 @@ public final class InfinityGroup extends FlexItemGroup {
         int page = IDS.indexOf(id);
 
         menu.addItem(PREV, ChestMenuUtils.getPreviousButton(player, page + 1, IDS.size()), (player1, i, itemStack, clickAction) -> {
-            if (page > 0) {
-                openInfinityRecipe(player1, IDS.get(page - 1), entry);
+            Session session = SESSIONS.get(player1.getUniqueId());
+            if (session != null && page > 0) {
+                session.replace(IDS.get(page - 1));
+                openInfinityRecipe(player1, IDS.get(page - 1), session);
             }
             return false;
         });
 
         menu.addItem(NEXT, ChestMenuUtils.getNextButton(player, page + 1, IDS.size()), (player1, i, itemStack, clickAction) -> {
-            if (page < IDS.size() - 1) {
-                openInfinityRecipe(player1, IDS.get(page + 1), entry);
+            Session session = SESSIONS.get(player1.getUniqueId());
+            if (session != null && page < IDS.size() - 1) {
+                session.replace(IDS.get(page + 1));
+                openInfinityRecipe(player1, IDS.get(page + 1), session);
             }
             return false;
         });
@@ -288,42 +354,23 @@ public final class InfinityGroup extends FlexItemGroup {
             menu.addItem(slot, INFO, ChestMenuUtils.getEmptyClickHandler());
         }
 
-        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
-
-        HISTORY.put(player.getUniqueId(), id);
-
-        menu.open(player);
-
+        return menu;
     }
 
     private static void moveRecipe(@Nonnull Player player, @Nonnull BlockMenu menu, Pair<SlimefunItemStack, ItemStack[]> pair, boolean max) {
         ItemStack[] recipe = pair.getSecondValue();
-        PlayerInventory inv = player.getInventory();
-
-        for (int i = 0 ; i < (max ? 64 : 1) ; i++) {
-            for (int slot = 0 ; slot < recipe.length ; slot++) { //each item in recipe
-                ItemStack recipeItem = recipe[slot];
+        ItemStack[] grid = new ItemStack[recipe.length];
 
-                if (recipeItem == null) {
-                    continue;
-                }
-
-                String id = StackUtils.getIdOrType(recipeItem);
+        for (int slot = 0 ; slot < recipe.length ; slot++) {
+            grid[slot] = menu.getItemInSlot(InfinityWorkbench.INPUT_SLOTS[slot]);
+        }
 
-                for (ItemStack item : inv.getContents()) { //each slot in their inv
-                    if (item != null && StackUtils.getIdOrType(item).equals(id)) { //matches recipe
-                        //get item
-                        ItemStack output = item.clone();
-                        output.setAmount(1);
+        ItemStack[] before = grid.clone();
 
-                        if (menu.fits(output, InfinityWorkbench.INPUT_SLOTS[slot])) {//not null and fits
-                            //remove item
-                            ItemUtils.consumeItem(item, 1, false);
-                            //push item
-                            menu.pushItem(output, InfinityWorkbench.INPUT_SLOTS[slot]);
-                            break;
-                        }
-                    }
+        if (RecipeMover.move(recipe, player.getInventory().getContents(), grid, max ? 64 : 1) > 0) {
+            for (int slot = 0 ; slot < recipe.length ; slot++) {
+                if (grid[slot] != before[slot]) {
+                    menu.replaceExistingItem(InfinityWorkbench.INPUT_SLOTS[slot], grid[slot]);
                 }
             }
         }
@@ -332,30 +379,42 @@ public final class InfinityGroup extends FlexItemGroup {
 
     }
 
-    @SuppressWarnings("deprecation")
     @ParametersAreNonnullByDefault
-    private static void openSlimefunRecipe(Player player, BackEntry entry, String backID, LinkedList<SlimefunItem> slimefunHistory) {
-        SlimefunItem slimefunItem = slimefunHistory.peekLast();
+    private static void openSlimefunRecipe(Player player, Session session) {
+        SlimefunItem slimefunItem = session.subRecipes.peekLast();
 
         if (slimefunItem == null) {
             return;
         }
 
+        getMenu("sf:" + language(player) + ':' + slimefunItem.getId(), () -> makeSlimefunRecipe(player, slimefunItem)).open(player);
+
+        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Nonnull
+    @ParametersAreNonnullByDefault
+    private static me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu makeSlimefunRecipe(Player player, SlimefunItem slimefunItem) {
         ItemStack output = slimefunItem.getRecipeOutput().clone();
 
         me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu menu =
                 new me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu(ItemUtils.getItemName(output));
         menu.setEmptySlotsClickable(false);
 
-        int length = slimefunHistory.size();
-
         menu.addItem(0, ChestMenuUtils.getBackButton(player, ""), (p, slot, item, action) -> {
-            if (length == 1) {
-                openInfinityRecipe(player, backID, entry);
-            }
-            else {
-                slimefunHistory.removeLast();
-                openSlimefunRecipe(player, entry, backID, slimefunHistory);
+            Session session = SESSIONS.get(p.getUniqueId());
+            if (session != null) {
+                if (session.subRecipes.size() <= 1) {
+                    String id = session.recipes.peekLast();
+                    if (id != null) {
+                        openInfinityRecipe(p, id, session);
+                    }
+                }
+                else {
+                    session.subRecipes.removeLast();
+                    openSlimefunRecipe(p, session);
+                }
             }
             return false;
         });
@@ -365,11 +424,12 @@ public final class InfinityGroup extends FlexItemGroup {
 
             if (recipeItem != null) {
                 menu.addItem(NORMAL_RECIPE_SLOTS[i], recipeItem, (p, slot, item, action) -> {
+                    Session session = SESSIONS.get(p.getUniqueId());
                     SlimefunItem recipeSlimefunItem = SlimefunItem.getByItem(recipeItem);
 
-                    if (recipeSlimefunItem != null) {
-                        slimefunHistory.add(recipeSlimefunItem);
-                        openSlimefunRecipe(player, entry, backID, slimefunHistory);
+                    if (session != null && recipeSlimefunItem != null) {
+                        session.subRecipes.add(recipeSlimefunItem);
+                        openSlimefunRecipe(p, session);
                     }
                     return false;
                 });
@@ -385,8 +445,33 @@ public final class InfinityGroup extends FlexItemGroup {
 
         menu.addItem(NORMAL_RECIPE_OUTPUT, output, ChestMenuUtils.getEmptyClickHandler());
 
-        player.playSound(player.getLocation(), Sound.ITEM_BOOK_PAGE_TURN, 1, 1);
-        menu.open(player);
+        return menu;
+    }
+
+    /**
+     * Gets a shared menu, menus only hold items and click handlers which look up the clicking player's session,
+     * so the same menu can be opened by any number of players
+     */
+    @SuppressWarnings("deprecation")
+    @Nonnull
+    private static me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu getMenu(
+            String key, Supplier<me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu> factory) {
+        me.mrCookieSlime.CSCoreLibPlugin.general.Inventory.ChestMenu menu = MENUS.get(key);
+        if (menu == null) {
+            if (MENUS.size() >= MAX_MENUS) {
+                // too many research combinations or languages, start over
+                MENUS.clear();
+            }
+            menu = factory.get();
+            MENUS.put(key, menu);
+        }
+        return menu;
+    }
+
+    @Nonnull
+    private static String language(Player player) {
+        Language language = Slimefun.getLocalization().getLanguage(player);
+        return language == null ? "" : language.getId();
     }
 
     @AllArgsConstructor
@@ -398,4 +483,32 @@ public final class InfinityGroup extends FlexItemGroup {
 
     }
 
+    /**
+     * What a player is currently looking at in the shared menus, with the infinity recipes they came
+     * through so back buttons can return to them
+     */
+    private static final class Session {
+
+        private static final int MAX_DEPTH = 32;
+
+        private final Deque<String> recipes = new ArrayDeque<>();
+        private final Deque<SlimefunItem> subRecipes = new ArrayDeque<>();
+        private BackEntry entry;
+
+        private void push(String id) {
+            if (!id.equals(this.recipes.peekLast())) {
+                if (this.recipes.size() == MAX_DEPTH) {
+                    this.recipes.removeFirst();
+                }
+                this.recipes.addLast(id);
+            }
+        }
+
+        private void replace(String id) {
+            this.recipes.pollLast();
+            this.recipes.addLast(id);
+        }
+
+    }
+
 }
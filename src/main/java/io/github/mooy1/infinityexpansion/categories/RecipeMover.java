@@ -0,0 +1,134 @@
+package io.github.mooy1.infinityexpansion.categories;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import lombok.experimental.UtilityClass;
+
+import org.bukkit.inventory.ItemStack;
+
+import io.github.mooy1.infinitylib.common.StackUtils;
+
+/**
+ * Moves complete sets of a recipe's ingredients from an inventory into a grid.
+ *
+ * The inventory is read once into a histogram of ingredient counts, so each stack's id is only resolved once.
+ * The number of sets is the most that the ingredients and the room in the grid allow.
+ * Each grid slot is then filled with one stack operation.
+ */
+@UtilityClass
+@ParametersAreNonnullByDefault
+final class RecipeMover {
+
+    /**
+     * Moves up to the given number of sets, the contents are taken from in place and changed grid slots
+     * are replaced with new stacks in the grid array
+     *
+     * @param recipe the recipe, one item per grid slot is used for each set
+     * @param contents the inventory to take from
+     * @param grid the current grid items, indexed like the recipe
+     * @return the number of sets moved
+     */
+    static int move(ItemStack[] recipe, ItemStack[] contents, ItemStack[] grid, int maxSets) {
+        Map<String, Tally> tallies = new HashMap<>();
+        Tally[] slots = new Tally[recipe.length];
+
+        for (int slot = 0 ; slot < recipe.length ; slot++) {
+            if (recipe[slot] != null) {
+                Tally tally = tallies.computeIfAbsent(StackUtils.getIdOrType(recipe[slot]), k -> new Tally());
+                tally.needed++;
+                slots[slot] = tally;
+            }
+        }
+
+        if (tallies.isEmpty()) {
+            return 0;
+        }
+
+        // one pass over the inventory, only stacks similar to the first found of each ingredient are counted
+        Tally[] matched = new Tally[contents.length];
+
+        for (int i = 0 ; i < contents.length ; i++) {
+            ItemStack stack = contents[i];
+            if (stack == null || stack.getAmount() <= 0) {
+                continue;
+            }
+            Tally tally = tallies.get(StackUtils.getIdOrType(stack));
+            if (tally == null) {
+                continue;
+            }
+            if (tally.sample == null) {
+                tally.sample = stack.clone();
+            }
+            else if (!tally.sample.isSimilar(stack)) {
+                continue;
+            }
+            tally.available += stack.getAmount();
+            matched[i] = tally;
+        }
+
+        int sets = maxSets;
+
+        for (Tally tally : tallies.values()) {
+            if (tally.sample == null) {
+                return 0;
+            }
+            sets = Math.min(sets, tally.available / tally.needed);
+        }
+
+        for (int slot = 0 ; slot < recipe.length && sets > 0 ; slot++) {
+            if (slots[slot] != null) {
+                sets = Math.min(sets, room(slots[slot].sample, grid[slot]));
+            }
+        }
+
+        if (sets <= 0) {
+            return 0;
+        }
+
+        for (int slot = 0 ; slot < recipe.length ; slot++) {
+            if (slots[slot] != null) {
+                ItemStack current = grid[slot];
+                ItemStack next = (current == null ? slots[slot].sample : current).clone();
+                next.setAmount(current == null ? sets : current.getAmount() + sets);
+                grid[slot] = next;
+                slots[slot].taking += sets;
+            }
+        }
+
+        for (int i = 0 ; i < contents.length ; i++) {
+            Tally tally = matched[i];
+            if (tally != null && tally.taking > 0) {
+                ItemStack stack = contents[i];
+                int take = Math.min(tally.taking, stack.getAmount());
+                stack.setAmount(stack.getAmount() - take);
+                tally.taking -= take;
+            }
+        }
+
+        return sets;
+    }
+
+    private static int room(ItemStack sample, @Nullable ItemStack current) {
+        if (current == null) {
+            return sample.getMaxStackSize();
+        }
+        if (sample.isSimilar(current)) {
+            return current.getMaxStackSize() - current.getAmount();
+        }
+        return 0;
+    }
+
+    private static final class Tally {
+
+        private ItemStack sample;
+        private int needed;
+        private int available;
+        private int taking;
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.mooy1.infinityexpansion.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinitylib.commands.SubCommand;
+
+public final class Allocations extends SubCommand {
+
+    private static final int DEFAULT_TOP = 10;
+
+    public Allocations() {
+        super("allocations", "Profiles the memory allocated by the machine ticks of this addon", "infinityexpansion.allocations");
+    }
+
+    @Override
+    protected void execute(@Nonnull CommandSender commandSender, @Nonnull String[] strings) {
+        if (strings.length == 0) {
+            commandSender.sendMessage(ChatColor.RED + "Usage: /ie allocations <on|off|reset|top [amount]|export>");
+            return;
+        }
+
+        switch (strings[0].toLowerCase()) {
+            case "on":
+                if (!AllocationProfiler.isSupported()) {
+                    commandSender.sendMessage(ChatColor.RED + "This jvm can't measure thread allocations!");
+                    return;
+                }
+                AllocationProfiler.setEnabled(true);
+                commandSender.sendMessage(ChatColor.GREEN + "Allocation profiler enabled");
+                break;
+            case "off":
+                AllocationProfiler.setEnabled(false);
+                commandSender.sendMessage(ChatColor.GREEN + "Allocation profiler disabled");
+                break;
+            case "reset":
+                AllocationProfiler.reset();
+                commandSender.sendMessage(ChatColor.GREEN + "Allocation profiler reset");
+                break;
+            case "top":
+                sendTop(commandSender, strings.length > 1 ? parseAmount(strings[1]) : DEFAULT_TOP);
+                break;
+            case "export":
+                export(commandSender);
+                break;
+            default:
+                commandSender.sendMessage(ChatColor.RED + "Unknown option '" + strings[0] + "'!");
+        }
+    }
+
+    private static void sendTop(CommandSender sender, int amount) {
+        if (!AllocationProfiler.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "The profiler is disabled, use /ie allocations on to collect allocations");
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Top " + amount + " machines:");
+        for (AllocationProfiler.Entry entry : AllocationProfiler.top(amount)) {
+            long calls = entry.calls();
+            long total = entry.totalBytes();
+            sender.sendMessage(ChatColor.GRAY + entry.id() + ": " + ChatColor.WHITE + String.format("%.2f", total / 1_048_576D)
+                    + " MB total, " + calls + " ticks, " + (calls == 0 ? 0 : total / calls) + " bytes avg");
+        }
+    }
+
+    private static void export(CommandSender sender) {
+        File file = new File(InfinityExpansion.instance().getDataFolder(), "allocations.csv");
+        try {
+            int rows = AllocationProfiler.export(file);
+            sender.sendMessage(ChatColor.GREEN + "Appended " + rows + " rows to " + file.getPath());
+        }
+        catch (IOException e) {
+            InfinityExpansion.log(Level.WARNING, "Failed to export allocation profile: " + e.getMessage());
+            sender.sendMessage(ChatColor.RED + "Failed to export, check the console for details");
+        }
+    }
+
+    private static int parseAmount(String string) {
+        try {
+            return Math.max(1, Integer.parseInt(string));
+        }
+        catch (NumberFormatException e) {
+            return DEFAULT_TOP;
+        }
+    }
+
+    @Override
+    protected void complete(@Nonnull CommandSender commandSender, @Nonnull String[] strings, @Nonnull List<String> list) {
+        if (strings.length == 1) {
+            list.add("on");
+            list.add("off");
+            list.add("reset");
+            list.add("top");
+            list.add("export");
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.mooy1.infinityexpansion.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
+import io.github.mooy1.infinitylib.commands.SubCommand;
+
+public final class Profile extends SubCommand {
+
+    private static final int DEFAULT_TOP = 10;
+
+    public Profile() {
+        super("profile", "Profiles the energy network ticks of this addon", "infinityexpansion.profile");
+    }
+
+    @Override
+    protected void execute(@Nonnull CommandSender commandSender, @Nonnull String[] strings) {
+        if (strings.length == 0) {
+            commandSender.sendMessage(ChatColor.RED + "Usage: /ie profile <on|off|reset|top [amount]|export>");
+            return;
+        }
+
+        switch (strings[0].toLowerCase()) {
+            case "on":
+                EnergyProfiler.setEnabled(true);
+                commandSender.sendMessage(ChatColor.GREEN + "Energy profiler enabled");
+                break;
+            case "off":
+                EnergyProfiler.setEnabled(false);
+                commandSender.sendMessage(ChatColor.GREEN + "Energy profiler disabled");
+                break;
+            case "reset":
+                EnergyProfiler.reset();
+                commandSender.sendMessage(ChatColor.GREEN + "Energy profiler reset");
+                break;
+            case "top":
+                sendTop(commandSender, strings.length > 1 ? parseAmount(strings[1]) : DEFAULT_TOP);
+                break;
+            case "export":
+                export(commandSender);
+                break;
+            default:
+                commandSender.sendMessage(ChatColor.RED + "Unknown option '" + strings[0] + "'!");
+        }
+    }
+
+    private static void sendTop(CommandSender sender, int amount) {
+        if (!EnergyProfiler.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "The profiler is disabled, use /ie profile on to collect timings");
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Top " + amount + " classes:");
+        for (EnergyProfiler.Entry entry : EnergyProfiler.topClasses(amount)) {
+            sender.sendMessage(format(entry, entry.name()));
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "Top " + amount + " locations:");
+        for (EnergyProfiler.Entry entry : EnergyProfiler.topLocations(amount)) {
+            Location l = entry.location();
+            sender.sendMessage(format(entry, entry.name() + " @ " + (l.getWorld() == null ? "unknown" : l.getWorld().getName())
+                    + " " + l.getBlockX() + " " + l.getBlockY() + " " + l.getBlockZ()));
+        }
+    }
+
+    private static String format(EnergyProfiler.Entry entry, String name) {
+        long calls = entry.calls();
+        long total = entry.totalNanos();
+        return ChatColor.GRAY + name + ": " + ChatColor.WHITE + String.format("%.3f", total / 1_000_000D) + " ms total, "
+                + calls + " calls, " + (calls == 0 ? 0 : total / calls) + " ns avg";
+    }
+
+    private static void export(CommandSender sender) {
+        File file = new File(InfinityExpansion.instance().getDataFolder(), "energy-profile.txt");
+        try {
+            int lines = EnergyProfiler.export(file);
+            sender.sendMessage(ChatColor.GREEN + "Exported " + lines + " stacks to " + file.getPath());
+        }
+        catch (IOException e) {
+            InfinityExpansion.log(Level.WARNING, "Failed to export energy profile: " + e.getMessage());
+            sender.sendMessage(ChatColor.RED + "Failed to export, check the console for details");
+        }
+    }
+
+    private static int parseAmount(String string) {
+        try {
+            return Math.max(1, Integer.parseInt(string));
+        }
+        catch (NumberFormatException e) {
+            return DEFAULT_TOP;
+        }
+    }
+
+    @Override
+    protected void complete(@Nonnull CommandSender commandSender, @Nonnull String[] strings, @Nonnull List<String> list) {
+        if (strings.length == 1) {
+            list.add("on");
+            list.add("off");
+            list.add("reset");
+            list.add("top");
+            list.add("export");
+        }
+    }
+
+}
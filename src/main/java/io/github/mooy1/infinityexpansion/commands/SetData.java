@@ -12,6 +12,7 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 import io.github.mooy1.infinityexpansion.items.storage.StorageUnit;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
 import io.github.mooy1.infinitylib.commands.SubCommand;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
 import me.mrCookieSlime.Slimefun.api.BlockStorage;
@@ -64,6 +65,9 @@ public final class SetData extends SubCommand {
             BlockStorage.addBlockInfo(target, strings[0], strings[1]);
         }
 
+        // drop cached values so machines read the new value
+        BlockDataCache.remove(target.getLocation());
+
         SlimefunItem unit = SlimefunItem.getById(id);
         if (unit instanceof StorageUnit) {
             ((StorageUnit) unit).reloadCache(target);
@@ -90,7 +90,7 @@ public final class Researches {
                 Machines.DUST_EXTRACTOR, Machines.EXTREME_FREEZER, Machines.GEO_QUARRY,
                 Machines.DECOMPRESSOR, Machines.STONEWORKS_FACTORY, Machines.BASIC_OBSIDIAN,
                 Machines.INGOT_FORMER, Blocks.ADVANCED_ANVIL, Machines.URANIUM_EXTRACTOR,
-                Machines.GEAR_TRANSFORMER
+                Machines.GEAR_TRANSFORMER, Machines.PIPELINED_STONEWORKS_FACTORY
         );
         create(14, "upgraded_machines", "Upgraded Machines", 40,
                 SlimefunExtension.ADVANCED_CHARGER, SlimefunExtension.ADVANCED_ENCHANTER,
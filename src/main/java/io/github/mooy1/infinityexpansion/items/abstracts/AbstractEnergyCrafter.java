@@ -5,8 +5,11 @@ import javax.annotation.ParametersAreNonnullByDefault;
 
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
 import io.github.mooy1.infinitylib.machines.TickingMenuBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
@@ -20,34 +23,62 @@ import me.mrCookieSlime.Slimefun.api.inventory.DirtyChestMenu;
 @ParametersAreNonnullByDefault
 public abstract class AbstractEnergyCrafter extends TickingMenuBlock implements EnergyNetComponent {
 
+    /**
+     * Charge is shown in steps of 1 / BUCKETS so the status is not rebuilt for every joule
+     */
+    private static final int BUCKETS = 10;
+
     protected final int energy;
     protected final int statusSlot;
+    protected final StatusRenderer status = new StatusRenderer();
+    private final ItemStack[] noEnergyItems = new ItemStack[BUCKETS];
 
     public AbstractEnergyCrafter(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe, int energy, int statusSlot) {
         super(category, item, recipeType, recipe);
         this.energy = energy;
         this.statusSlot = statusSlot;
+        for (int i = 0 ; i < BUCKETS ; i++) {
+            this.noEnergyItems[i] = new CustomItemStack(
+                    Material.RED_STAINED_GLASS_PANE,
+                    "&cNot enough energy!",
+                    "",
+                    "&aCharge: " + (this.energy * i / BUCKETS) + "+/" + this.energy + " J",
+                    ""
+            );
+        }
     }
 
     @Override
     protected final void tick(Block block, BlockMenu blockMenu) {
+        long allocated = AllocationProfiler.start();
         if (blockMenu.hasViewer()) {
+            long start = EnergyProfiler.start();
             int charge = getCharge(block.getLocation());
-            if (charge < this.energy) { //not enough energy
-                blockMenu.replaceExistingItem(this.statusSlot, new CustomItemStack(
-                        Material.RED_STAINED_GLASS_PANE,
-                        "&cNot enough energy!",
-                        "",
-                        "&aCharge: " + charge + "/" + this.energy + " J",
-                        ""
-                ));
-            }
-            else {
-                update(blockMenu);
+            int bucket = charge < this.energy ? charge * BUCKETS / this.energy : BUCKETS;
+            int signature = StatusRenderer.signature(blockMenu, getInputSlots(), getOutputSlots());
+            if (this.status.changed(blockMenu, signature, bucket)) {
+                if (bucket < BUCKETS) { //not enough energy
+                    this.status.show(blockMenu, this.statusSlot, this.noEnergyItems[bucket]);
+                }
+                else {
+                    update(blockMenu);
+                }
             }
+            EnergyProfiler.stop(start, this, block.getLocation());
         }
+        AllocationProfiler.stop(allocated, this);
+    }
+
+    @Override
+    protected void onBreak(BlockBreakEvent e, BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.status.remove(menu.getLocation());
     }
 
+    /**
+     * Called when the machine is viewed, has enough energy, and its slots changed since the last call.
+     * Status items should be shown through {@link #status} so that unchanged items aren't sent again.
+     */
     public abstract void update(BlockMenu blockMenu);
 
     @Nonnull
@@ -57,7 +88,7 @@ public abstract class AbstractEnergyCrafter extends TickingMenuBlock implements
     }
 
     @Override
-    public final int getCapacity() {
+    public int getCapacity() {
         return this.energy;
     }
 
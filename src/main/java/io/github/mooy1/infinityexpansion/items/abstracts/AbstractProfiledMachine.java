@@ -0,0 +1,38 @@
+package io.github.mooy1.infinityexpansion.items.abstracts;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.block.Block;
+import org.bukkit.inventory.ItemStack;
+
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+/**
+ * A machine whose processing is recorded by the {@link AllocationProfiler}
+ */
+@ParametersAreNonnullByDefault
+public abstract class AbstractProfiledMachine extends AbstractMachineBlock {
+
+    public AbstractProfiledMachine(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe) {
+        super(category, item, recipeType, recipe);
+    }
+
+    @Override
+    protected final boolean process(Block b, BlockMenu menu) {
+        long allocated = AllocationProfiler.start();
+        boolean processed = work(b, menu);
+        AllocationProfiler.stop(allocated, this);
+        return processed;
+    }
+
+    /**
+     * Called when the machine has enough energy, energy is only taken when this returns true
+     */
+    protected abstract boolean work(Block b, BlockMenu menu);
+
+}
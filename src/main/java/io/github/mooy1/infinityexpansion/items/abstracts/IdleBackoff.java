@@ -0,0 +1,83 @@
+package io.github.mooy1.infinityexpansion.items.abstracts;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.Location;
+
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+/**
+ * Lets machines with a full output sleep instead of checking their output every tick.
+ *
+ * Each failed output doubles the sleep up to {@link #MAX_SLEEP} ticks. A machine wakes early
+ * as soon as its menu changes (cargo or anything else going through the menu) or someone views it,
+ * which also covers players taking items out.
+ */
+@ParametersAreNonnullByDefault
+public final class IdleBackoff {
+
+    private static final int MAX_SLEEP = 64;
+
+    private final Map<Location, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * Returns whether the machine is sleeping and should skip this tick
+     */
+    public boolean sleeping(BlockMenu menu) {
+        State state = this.states.get(menu.getLocation());
+        if (state == null) {
+            return false;
+        }
+        if (state.menu != menu || menu.hasViewer() || menu.getUnsavedChanges() != state.changes) {
+            this.states.remove(menu.getLocation());
+            return false;
+        }
+        return InfinityExpansion.slimefunTickCount() < state.wake;
+    }
+
+    /**
+     * Call when the machine failed to output, puts it to sleep for twice as long as last time
+     */
+    public void idle(BlockMenu menu) {
+        if (menu.hasViewer()) {
+            return;
+        }
+        State state = this.states.get(menu.getLocation());
+        if (state == null || state.menu != menu) {
+            state = new State(menu);
+            this.states.put(menu.getLocation(), state);
+        }
+        state.sleep = Math.min(MAX_SLEEP, state.sleep * 2);
+        state.wake = InfinityExpansion.slimefunTickCount() + state.sleep;
+        state.changes = menu.getUnsavedChanges();
+    }
+
+    /**
+     * Call when the machine output successfully, resets its backoff
+     */
+    public void active(Location l) {
+        this.states.remove(l);
+    }
+
+    public void remove(Location l) {
+        this.states.remove(l);
+    }
+
+    private static final class State {
+
+        private final BlockMenu menu;
+        private int sleep = 1;
+        private int wake;
+        private int changes;
+
+        private State(BlockMenu menu) {
+            this.menu = menu;
+        }
+
+    }
+
+}
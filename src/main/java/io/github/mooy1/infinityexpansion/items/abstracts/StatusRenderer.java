@@ -0,0 +1,102 @@
+package io.github.mooy1.infinityexpansion.items.abstracts;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.Location;
+import org.bukkit.inventory.ItemStack;
+
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+/**
+ * Keeps track of what each machine last rendered so that status items are only rebuilt when
+ * the contents of its slots or its charge bucket changed, and only sent when they differ.
+ */
+@ParametersAreNonnullByDefault
+public final class StatusRenderer {
+
+    private final Map<Location, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * Hash of the given slots, changes whenever an item is added, removed or modified
+     */
+    public static int signature(BlockMenu menu, int[]... slotGroups) {
+        int hash = 1;
+        for (int[] slots : slotGroups) {
+            for (int slot : slots) {
+                ItemStack item = menu.getItemInSlot(slot);
+                hash = 31 * hash + (item == null ? 0 : item.hashCode());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns whether the machine needs to render again, and remembers the new signature and bucket if so
+     */
+    public boolean changed(BlockMenu menu, int signature, int bucket) {
+        State state = getState(menu);
+        if (state.signature == signature && state.bucket == bucket && state.rendered) {
+            return false;
+        }
+        state.signature = signature;
+        state.bucket = bucket;
+        state.rendered = true;
+        return true;
+    }
+
+    /**
+     * Sets the item in the slot, unless it is already displayed
+     */
+    public void show(BlockMenu menu, int slot, ItemStack item) {
+        State state = getState(menu);
+        if (state.shown == item || item.equals(state.shown)) {
+            return;
+        }
+        state.shown = item;
+        menu.replaceExistingItem(slot, item);
+    }
+
+    /**
+     * Forces the next call to {@link #changed} to return true
+     */
+    public void invalidate(Location l) {
+        State state = this.states.get(l);
+        if (state != null) {
+            state.rendered = false;
+        }
+    }
+
+    public void remove(Location l) {
+        this.states.remove(l);
+    }
+
+    @Nonnull
+    private State getState(BlockMenu menu) {
+        State state = this.states.get(menu.getLocation());
+        if (state == null || state.menu != menu) {
+            // new or reloaded menu
+            state = new State(menu);
+            this.states.put(menu.getLocation(), state);
+        }
+        return state;
+    }
+
+    private static final class State {
+
+        private final BlockMenu menu;
+        private int signature;
+        private int bucket;
+        private boolean rendered;
+        private ItemStack shown;
+
+        private State(BlockMenu menu) {
+            this.menu = menu;
+        }
+
+    }
+
+}
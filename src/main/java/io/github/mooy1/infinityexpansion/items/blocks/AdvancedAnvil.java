@@ -1,8 +1,15 @@
 package io.github.mooy1.infinityexpansion.items.blocks;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -15,12 +22,12 @@ import org.bukkit.Sound;
 import org.bukkit.block.Block;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.EnchantmentStorageMeta;
 import org.bukkit.inventory.meta.ItemMeta;
 
-import com.google.common.collect.MapDifference;
-import com.google.common.collect.Maps;
+import com.google.common.annotations.VisibleForTesting;
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
 import io.github.mooy1.infinityexpansion.items.abstracts.AbstractEnergyCrafter;
 import io.github.mooy1.infinityexpansion.utils.Util;
@@ -35,6 +42,12 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 /**
  * Combines slimefun items, exceeds vanilla anvil limits
  *
+ * Enchants are merged with their levels in an array indexed by enchantment ordinal,
+ * and the preview is only merged again when one of the inputs changed.
+ *
+ * Shift-clicking starts a batch which merges the book in the 2nd slot and then the books in the book slots
+ * into a single item in the 1st slot, one book each tick while the anvil is viewed and has a full charge.
+ *
  * @author Mooy1
  */
 public final class AdvancedAnvil extends AbstractEnergyCrafter {
@@ -42,24 +55,42 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
     private static final Map<Enchantment, Integer> MAX_LEVELS = Util.getEnchants(Objects.requireNonNull(
             InfinityExpansion.config().getConfigurationSection("advanced-anvil-max-levels")
     ));
+    private static volatile EnchantTable table = EnchantTable.create(Enchantment.values());
     private static final ItemStack ANVIL_SLOT = new CustomItemStack(Material.BLACK_STAINED_GLASS_PANE, " ");
     private static final int[] INPUT_SLOTS = {
             10, 13
     };
+    /**
+     * Only used by a batch, so they aren't input slots
+     */
+    private static final int[] BOOK_SLOTS = {
+            27, 28, 29,
+            36, 37, 38,
+            45, 46
+    };
     private static final int[] OUTPUT_SLOTS = {
             16
     };
     private static final int STATUS_SLOT = 40;
+    private static final ItemStack INVALID_ITEM = new CustomItemStack(Material.BARRIER, "&cInvalid items!");
+    private static final ItemStack NO_UPGRADES_ITEM = new CustomItemStack(Material.BARRIER, "&cNo upgrades!");
+    private static final ItemStack MERGING_ITEM = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aMerging books...");
     private static final int[] ANVIL_SLOTS = {
             30, 31, 32, 39, 41, 47, 48, 49, 50, 51
 
     };
     private static final int[] BACKGROUND = {
-            27, 28, 29, 33, 34, 35,
-            36, 37, 38, 42, 43, 44,
-            45, 46, 52, 53
+            33, 34, 35,
+            42, 43, 44,
+            52, 53
     };
 
+    private final Map<Location, Preview> previews = new ConcurrentHashMap<>();
+    /**
+     * Books merged so far by each running batch
+     */
+    private final Map<Location, Integer> batches = new ConcurrentHashMap<>();
+
     public AdvancedAnvil(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int energy) {
         super(category, item, type, recipe, energy, STATUS_SLOT);
     }
@@ -94,11 +125,133 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
     @Override
     protected void onNewInstance(@Nonnull BlockMenu menu, @Nonnull Block b) {
         menu.addMenuClickHandler(STATUS_SLOT, (player, i, itemStack, clickAction) -> {
-            craft(menu, b, player);
+            if (clickAction.isShiftClicked()) {
+                startBatch(menu, b, player);
+            }
+            else {
+                craft(menu, b, player);
+            }
             return false;
         });
     }
 
+    /**
+     * Checks the 1st item and every book of a batch, then starts merging them one book per tick
+     */
+    private void startBatch(BlockMenu inv, Block b, Player p) {
+        ItemStack item1 = inv.getItemInSlot(INPUT_SLOTS[0]);
+        ItemStack item2 = inv.getItemInSlot(INPUT_SLOTS[1]);
+        if (item1 == null || (item2 != null && item2.getType() != Material.ENCHANTED_BOOK)) {
+            craft(inv, b, p);
+            return;
+        }
+
+        SlimefunItem sfItem1 = SlimefunItem.getByItem(item1);
+        if (sfItem1 != null && !sfItem1.isEnchantable()) {
+            p.sendMessage(ChatColor.RED + "Slimefun item is not enchantable!");
+            return;
+        }
+
+        // each unit is one book
+        List<ItemStack> books = new ArrayList<>();
+        for (int slot = nextBook(inv, -1) ; slot != -1 ; slot = nextBook(inv, slot)) {
+            ItemStack book = inv.getItemInSlot(slot);
+            if (!isBook(book)) {
+                p.sendMessage(ChatColor.RED + (book.getType() == Material.ENCHANTED_BOOK
+                        ? "Slimefun item is not disenchantable!" : "Invalid items!"));
+                return;
+            }
+            for (int i = 0 ; i < book.getAmount() ; i++) {
+                books.add(book);
+            }
+        }
+
+        if (books.isEmpty()) {
+            craft(inv, b, p);
+            return;
+        }
+
+        if (item1.getAmount() != 1) {
+            p.sendMessage(ChatColor.RED + "Only a single item can be merged with a batch of books!");
+            return;
+        }
+
+        int steps = mergeBooks(item1, books, books.size(), new HashMap<>());
+        if (steps == 0) {
+            p.sendMessage(ChatColor.RED + "No upgrades!");
+            return;
+        }
+
+        this.batches.put(b.getLocation(), 0);
+        p.sendMessage(ChatColor.GREEN + "Merging " + steps + " book" + (steps == 1 ? "" : "s") + ", one each tick");
+        if (getCharge(b.getLocation()) >= this.energy) {
+            update(inv);
+        }
+    }
+
+    /**
+     * Merges the next book of the batch into the item in the 1st slot, paid from one tick's charge.
+     * The batch ends when no book is left which changes anything, the item is then moved to the output.
+     *
+     * @return whether a book was merged
+     */
+    private boolean mergeNext(BlockMenu inv) {
+        Location l = inv.getLocation();
+        if (getCharge(l) < this.energy) {
+            return false;
+        }
+
+        ItemStack item1 = inv.getItemInSlot(INPUT_SLOTS[0]);
+        int slot = nextBook(inv, -1);
+        ItemStack book = slot == -1 ? null : inv.getItemInSlot(slot);
+        ItemStack output = item1 == null || item1.getAmount() != 1 || book == null || !isBook(book)
+                ? null : getOutput(item1, book);
+
+        if (output == null) {
+            Integer merged = this.batches.remove(l);
+            if (merged != null && merged > 0 && item1 != null && inv.fits(item1, OUTPUT_SLOTS)) {
+                inv.pushItem(item1.clone(), OUTPUT_SLOTS);
+                inv.replaceExistingItem(INPUT_SLOTS[0], null);
+            }
+            return false;
+        }
+
+        inv.replaceExistingItem(INPUT_SLOTS[0], output);
+        inv.consumeItem(slot);
+        removeCharge(l, this.energy);
+        this.batches.merge(l, 1, Integer::sum);
+        this.status.show(inv, STATUS_SLOT, MERGING_ITEM);
+        return true;
+    }
+
+    /**
+     * The first slot after the given one, in the order of the 2nd slot then the book slots, holding an item
+     *
+     * @return the slot or -1 if there is none
+     */
+    private static int nextBook(BlockMenu inv, int after) {
+        boolean found = after == -1;
+        if (found && inv.getItemInSlot(INPUT_SLOTS[1]) != null) {
+            return INPUT_SLOTS[1];
+        }
+        found |= after == INPUT_SLOTS[1];
+        for (int slot : BOOK_SLOTS) {
+            if (found && inv.getItemInSlot(slot) != null) {
+                return slot;
+            }
+            found |= slot == after;
+        }
+        return -1;
+    }
+
+    private static boolean isBook(ItemStack item) {
+        if (item.getType() != Material.ENCHANTED_BOOK) {
+            return false;
+        }
+        SlimefunItem sfItem = SlimefunItem.getByItem(item);
+        return sfItem == null || sfItem.isDisenchantable();
+    }
+
     private void craft(BlockMenu inv, Block b, Player p) {
         Location l = b.getLocation();
         if (getCharge(l) < this.energy) { //not enough energy
@@ -127,7 +280,7 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
             return;
         }
 
-        ItemStack output = getOutput(item1, item2);
+        ItemStack output = preview(l, item1, item2);
 
         if (output == null) {
             p.sendMessage(ChatColor.RED + "No upgrades!");
@@ -148,13 +301,105 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
     }
 
     @Nullable
-    private static ItemStack getOutput(@Nonnull ItemStack item1, @Nonnull ItemStack item2) {
+    @VisibleForTesting
+    static ItemStack getOutput(@Nonnull ItemStack item1, @Nonnull ItemStack item2) {
         Map<Enchantment, Integer> enchants1 = getEnchants(item1.getItemMeta());
         Map<Enchantment, Integer> enchants2 = getEnchants(item2.getItemMeta());
-        if (enchants1.size() == 0 && enchants2.size() == 0) {
+        if (enchants2.isEmpty()) {
+            // nothing can be upgraded, overridden or added without enchants on the 2nd item
             return null;
         }
-        return combineEnchants(Maps.difference(enchants1, enchants2), item1, item2);
+
+        EnchantTable table = EnchantTable.of(Arrays.asList(enchants1, enchants2));
+        int[] levels = table.levels(enchants1);
+        Map<Enchantment, Integer> changes = new HashMap<>();
+        boolean bookOntoTool = item2.getType() == Material.ENCHANTED_BOOK && item1.getType() != Material.ENCHANTED_BOOK;
+
+        if (!merge(table, levels, enchants2, item1, bookOntoTool, changes)) {
+            return null;
+        }
+        return withEnchants(item1, changes);
+    }
+
+    /**
+     * Folds every given book into the first item in one pass over their enchants, a book which doesn't
+     * change anything ends the batch since the ones after it would be merged onto an unexpected result
+     *
+     * @return the number of books merged
+     */
+    static int mergeBooks(@Nonnull ItemStack item1, @Nonnull List<ItemStack> books, int maxSteps, @Nonnull Map<Enchantment, Integer> changes) {
+        Map<Enchantment, Integer> enchants1 = getEnchants(item1.getItemMeta());
+        List<Map<Enchantment, Integer>> enchants = new ArrayList<>(books.size() + 1);
+        enchants.add(enchants1);
+        for (ItemStack book : books) {
+            enchants.add(getEnchants(book.getItemMeta()));
+        }
+
+        EnchantTable table = EnchantTable.of(enchants);
+        int[] levels = table.levels(enchants1);
+        boolean bookOntoTool = item1.getType() != Material.ENCHANTED_BOOK;
+        int steps = 0;
+
+        for (int i = 1 ; i < enchants.size() && steps < maxSteps ; i++) {
+            if (!merge(table, levels, enchants.get(i), item1, bookOntoTool, changes)) {
+                break;
+            }
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Merges one item's enchants into the levels, putting each level that changed into the changes
+     *
+     * @return whether anything changed
+     */
+    private static boolean merge(EnchantTable table, int[] levels, Map<Enchantment, Integer> enchants2,
+                                 ItemStack item1, boolean bookOntoTool, Map<Enchantment, Integer> changes) {
+        boolean changed = false;
+
+        for (Map.Entry<Enchantment, Integer> e : enchants2.entrySet()) {
+            int ordinal = table.ordinals.get(e.getKey());
+            int left = levels[ordinal];
+            int right = e.getValue();
+            int level;
+
+            if (left == right) {
+                // upgrade (same enchant and level)
+                if (left >= table.maxLevels[ordinal]) {
+                    continue;
+                }
+                level = left + 1;
+            }
+            else if (left == 0) {
+                // unique (different enchants from 2nd item)
+                if (bookOntoTool && !e.getKey().canEnchantItem(item1)) {
+                    continue;
+                }
+                level = right;
+            }
+            else if (right > left) {
+                // override (same enchant different level)
+                level = right;
+            }
+            else {
+                continue;
+            }
+
+            levels[ordinal] = level;
+            changes.put(e.getKey(), level);
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    @Nonnull
+    private static ItemStack withEnchants(@Nonnull ItemStack item1, @Nonnull Map<Enchantment, Integer> changes) {
+        ItemStack item = item1.clone();
+        item.setAmount(1);
+        setEnchants(item, item.getItemMeta(), changes);
+        return item;
     }
 
     @Nonnull
@@ -169,7 +414,7 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
             return meta.getEnchants();
         }
 
-        return new HashMap<>();
+        return Collections.emptyMap();
     }
 
     private static void setEnchants(@Nonnull ItemStack item, @Nonnull ItemMeta meta, @Nonnull Map<Enchantment, Integer> enchants) {
@@ -187,72 +432,139 @@ public final class AdvancedAnvil extends AbstractEnergyCrafter {
         }
     }
 
+    /**
+     * A copy of the output for the current inputs, only merged again when an input changed since the last call
+     */
     @Nullable
-    private static ItemStack combineEnchants(@Nonnull MapDifference<Enchantment, Integer> dif, @Nonnull ItemStack item1, @Nonnull ItemStack item2) {
-        ItemStack item = item1.clone();
-        item.setAmount(1);
-        ItemMeta meta = item.getItemMeta();
+    private ItemStack preview(@Nonnull Location l, @Nonnull ItemStack item1, @Nonnull ItemStack item2) {
+        Preview preview = this.previews.get(l);
+        if (preview == null || !preview.matches(item1, item2)) {
+            preview = new Preview(item1, item2, getOutput(item1, item2));
+            this.previews.put(l, preview);
+        }
+        return preview.output == null ? null : preview.output.clone();
+    }
 
-        Map<Enchantment, Integer> enchants = new HashMap<>();
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        menu.dropItems(menu.getLocation(), BOOK_SLOTS);
+        this.previews.remove(menu.getLocation());
+        this.batches.remove(menu.getLocation());
+    }
 
-        boolean changed = false;
+    @Override
+    public void update(@Nonnull BlockMenu inv) {
+        if (this.batches.containsKey(inv.getLocation()) && mergeNext(inv)) {
+            return;
+        }
 
-        //upgrades (same enchant and level)
-        for (Map.Entry<Enchantment, Integer> e : dif.entriesInCommon().entrySet()) {
-            if (MAX_LEVELS.containsKey(e.getKey()) && e.getValue() < MAX_LEVELS.get(e.getKey())) {
-                enchants.put(e.getKey(), e.getValue() + 1);
-                changed = true;
-            }
+        ItemStack item1 = inv.getItemInSlot(INPUT_SLOTS[0]);
+        ItemStack item2 = inv.getItemInSlot(INPUT_SLOTS[1]);
+
+        if (item1 == null || item2 == null || (item2.getType() != Material.ENCHANTED_BOOK && item1.getType() != item2.getType())) {
+            this.status.show(inv, STATUS_SLOT, INVALID_ITEM);
+            return;
         }
 
-        //override (same enchant different level)
-        for (Map.Entry<Enchantment, MapDifference.ValueDifference<Integer>> e : dif.entriesDiffering().entrySet()) {
-            if (e.getValue().rightValue() > e.getValue().leftValue()) {
-                enchants.put(e.getKey(), e.getValue().rightValue());
-                changed = true;
-            }
+        ItemStack output = preview(inv.getLocation(), item1, item2);
+
+        if (output == null) {
+            this.status.show(inv, STATUS_SLOT, NO_UPGRADES_ITEM);
+            return;
         }
 
-        boolean bookOntoTool = item2.getType() == Material.ENCHANTED_BOOK && item1.getType() != Material.ENCHANTED_BOOK;
+        this.status.show(inv, STATUS_SLOT, Util.getDisplayItem(output));
 
-        //unique (different enchants from 2nd item)
-        for (Map.Entry<Enchantment, Integer> e : dif.entriesOnlyOnRight().entrySet()) {
-            if (bookOntoTool) {
-                if (!e.getKey().canEnchantItem(item)) {
-                    continue;
+    }
+
+    /**
+     * Enchantment ordinals and their max levels, replaced by a larger copy when an enchantment
+     * registered after startup is seen so that lookups never need to lock
+     */
+    private static final class EnchantTable {
+
+        private final Map<Enchantment, Integer> ordinals;
+        private final int[] maxLevels;
+
+        private EnchantTable(Map<Enchantment, Integer> ordinals, int[] maxLevels) {
+            this.ordinals = ordinals;
+            this.maxLevels = maxLevels;
+        }
+
+        @Nonnull
+        private static EnchantTable create(@Nonnull Enchantment[] enchants) {
+            Map<Enchantment, Integer> ordinals = new IdentityHashMap<>();
+            int[] maxLevels = new int[enchants.length];
+            for (Enchantment enchant : enchants) {
+                if (!ordinals.containsKey(enchant)) {
+                    int ordinal = ordinals.size();
+                    ordinals.put(enchant, ordinal);
+                    // 0 when the enchant can't be upgraded
+                    maxLevels[ordinal] = MAX_LEVELS.getOrDefault(enchant, 0);
                 }
             }
-            enchants.put(e.getKey(), e.getValue());
-            changed = true;
+            return new EnchantTable(ordinals, maxLevels);
         }
 
-        if (changed) {
-            setEnchants(item, meta, enchants);
-            return item;
-        }
-        else {
-            return null;
+        @Nonnull
+        private static EnchantTable of(@Nonnull List<Map<Enchantment, Integer>> enchants) {
+            EnchantTable current = table;
+            if (current.containsAll(enchants)) {
+                return current;
+            }
+            synchronized (EnchantTable.class) {
+                Set<Enchantment> all = Collections.newSetFromMap(new IdentityHashMap<>());
+                all.addAll(Arrays.asList(Enchantment.values()));
+                all.addAll(table.ordinals.keySet());
+                for (Map<Enchantment, Integer> map : enchants) {
+                    all.addAll(map.keySet());
+                }
+                table = create(all.toArray(new Enchantment[0]));
+                return table;
+            }
         }
-    }
 
-    @Override
-    public void update(@Nonnull BlockMenu inv) {
-        ItemStack item1 = inv.getItemInSlot(INPUT_SLOTS[0]);
-        ItemStack item2 = inv.getItemInSlot(INPUT_SLOTS[1]);
+        private boolean containsAll(@Nonnull List<Map<Enchantment, Integer>> enchants) {
+            for (Map<Enchantment, Integer> map : enchants) {
+                if (!this.ordinals.keySet().containsAll(map.keySet())) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
-        if (item1 == null || item2 == null || (item2.getType() != Material.ENCHANTED_BOOK && item1.getType() != item2.getType())) {
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BARRIER, "&cInvalid items!"));
-            return;
+        @Nonnull
+        private int[] levels(@Nonnull Map<Enchantment, Integer> enchants) {
+            int[] levels = new int[this.maxLevels.length];
+            for (Map.Entry<Enchantment, Integer> e : enchants.entrySet()) {
+                levels[this.ordinals.get(e.getKey())] = e.getValue();
+            }
+            return levels;
         }
 
-        ItemStack output = getOutput(item1, item2);
+    }
 
-        if (output == null) {
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BARRIER, "&cNo upgrades!"));
-            return;
+    private static final class Preview {
+
+        private final ItemStack item1;
+        private final ItemStack item2;
+        private final int hash1;
+        private final int hash2;
+        private final ItemStack output;
+
+        private Preview(ItemStack item1, ItemStack item2, @Nullable ItemStack output) {
+            this.item1 = item1.clone();
+            this.item2 = item2.clone();
+            this.hash1 = item1.hashCode();
+            this.hash2 = item2.hashCode();
+            this.output = output;
         }
 
-        inv.replaceExistingItem(STATUS_SLOT, Util.getDisplayItem(output));
+        private boolean matches(ItemStack item1, ItemStack item2) {
+            return this.hash1 == item1.hashCode() && this.hash2 == item2.hashCode()
+                    && this.item1.equals(item1) && this.item2.equals(item2);
+        }
 
     }
 
@@ -1,27 +1,53 @@
 package io.github.mooy1.infinityexpansion.items.blocks;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import org.bukkit.ChatColor;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.categories.InfinityGroup;
+import io.github.mooy1.infinityexpansion.items.storage.StorageCache;
+import io.github.mooy1.infinityexpansion.items.storage.StorageUnit;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
 import io.github.mooy1.infinitylib.machines.MachineLayout;
 import io.github.mooy1.infinitylib.machines.MachineRecipeType;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.EnergyNetComponent;
 import io.github.thebusybiscuit.slimefun4.core.networks.energy.EnergyNetComponentType;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
+import io.github.thebusybiscuit.slimefun4.libraries.dough.items.ItemUtils;
 import io.github.thebusybiscuit.slimefun4.utils.ChestMenuUtils;
+import me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config;
+import me.mrCookieSlime.Slimefun.Objects.handlers.BlockTicker;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 
+/**
+ * Crafts infinity recipes from its 6x6 grid, either when the craft button is clicked
+ * or every tick once a recipe is locked in auto-craft mode.
+ *
+ * Auto-craft tops the grid up from adjacent storage units and crafts as many times as the charge allows.
+ * Every craft costs {@link #energy}, which is what draining the old buffer of one craft cost.
+ *
+ * @author Mooy1
+ */
 @ParametersAreNonnullByDefault
 public final class InfinityWorkbench extends io.github.mooy1.infinitylib.machines.CraftingBlock implements EnergyNetComponent {
 
@@ -34,35 +60,77 @@ public final class InfinityWorkbench extends io.github.mooy1.infinitylib.machine
             45, 46, 47, 48, 49, 50
     };
     private static final int RECIPE_SLOT = 7;
+    private static final int AUTO_SLOT = 8;
+    private static final int STATUS_SLOT = 16;
+    private static final int[] OUTPUT_SLOTS = { 43 };
+    /**
+     * Crafts a batch can pay for when the buffer is full, the buffer used to hold a single craft
+     */
+    private static final int BATCH = 16;
+    private static final String AUTO_CRAFT = "auto_craft"; // locked recipe key or null key
+    private static final ItemStack AUTO_OFF = new CustomItemStack(Material.GRAY_DYE, "&7Auto-Craft: &cOff",
+            "&7Click to lock the recipe in the grid",
+            "&7and craft it whenever there is energy"
+    );
+    private static final BlockFace[] ADJACENT = {
+            BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST
+    };
     public static final MachineRecipeType TYPE = new MachineRecipeType("infinity_forge",
             new CustomItemStack(Blocks.INFINITY_FORGE, Blocks.INFINITY_FORGE.getDisplayName(),
                     "", "&cUse the infinity recipes category to see the correct recipe!"));
 
+    private final RecipeIndex recipes = new RecipeIndex(INPUT_SLOTS.length);
+    private final Map<Location, RecipeIndex.Recipe> locked = new ConcurrentHashMap<>();
     private final int energy;
 
     public InfinityWorkbench(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int energy) {
         super(category, item, type, recipe);
-        addRecipesFrom(TYPE);
+        TYPE.sendRecipesTo((input, output) -> this.recipes.add(input, output));
         layout(new MachineLayout()
                 .inputSlots(INPUT_SLOTS)
-                .outputSlots(new int[] { 43 })
-                .statusSlot(16)
+                .outputSlots(OUTPUT_SLOTS)
+                .statusSlot(STATUS_SLOT)
                 .inputBorder(new int[0])
                 .outputBorder(new int[] {
                         33, 34, 35,
                         42, 44,
                         51, 52, 53
                 }).background(new int[] {
-                        6, 8, 15, 17, 24, 25, 26
+                        6, 15, 17, 24, 25, 26
                 })
         );
         this.energy = energy;
+
+        addItemHandler(new BlockTicker() {
+            @Override
+            public boolean isSynchronized() {
+                return true;
+            }
+
+            @Override
+            public void tick(Block b, SlimefunItem item, Config data) {
+                RecipeIndex.Recipe recipe = InfinityWorkbench.this.locked.get(b.getLocation());
+                if (recipe != null) {
+                    BlockMenu menu = BlockStorage.getInventory(b);
+                    if (menu != null) {
+                        long start = AllocationProfiler.start();
+                        autoCraft(b, menu, recipe);
+                        AllocationProfiler.stop(start, InfinityWorkbench.this);
+                    }
+                }
+            }
+        });
     }
 
     @Override
     protected void setup(BlockMenuPreset preset) {
         super.setup(preset);
         preset.addItem(RECIPE_SLOT, new CustomItemStack(Material.BOOK, "&6Recipes"), ChestMenuUtils.getEmptyClickHandler());
+        preset.addItem(AUTO_SLOT, AUTO_OFF, ChestMenuUtils.getEmptyClickHandler());
+        preset.addItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aCraft",
+                "&7Click to craft once",
+                "&7Shift-Click to craft as many as possible"
+        ), ChestMenuUtils.getEmptyClickHandler());
     }
 
     @Override
@@ -72,25 +140,215 @@ public final class InfinityWorkbench extends io.github.mooy1.infinitylib.machine
             InfinityGroup.open(p, menu);
             return false;
         });
+        menu.addMenuClickHandler(STATUS_SLOT, (p, slot, item, action) -> {
+            craft(menu, p, action.isShiftClicked());
+            return false;
+        });
+        menu.addMenuClickHandler(AUTO_SLOT, (p, slot, item, action) -> {
+            toggleAutoCraft(menu, p);
+            return false;
+        });
+
+        String key = BlockStorage.getLocationInfo(b.getLocation(), AUTO_CRAFT);
+        RecipeIndex.Recipe recipe = key == null ? null : this.recipes.get(key);
+        if (recipe == null) {
+            this.locked.remove(b.getLocation());
+        }
+        else {
+            this.locked.put(b.getLocation(), recipe);
+        }
+        menu.replaceExistingItem(AUTO_SLOT, autoCraftItem(recipe));
+    }
+
+    @Override
+    protected void onBreak(BlockBreakEvent e, BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.locked.remove(menu.getLocation());
     }
 
     @Override
     protected void craft(Block b, BlockMenu menu, Player p) {
+        craft(menu, p, false);
+    }
+
+    private void craft(BlockMenu menu, Player p, boolean max) {
         int charge = getCharge(menu.getLocation());
         if (charge < this.energy) {
             p.sendMessage(
                     ChatColor.RED + "Not enough energy!",
                     ChatColor.GREEN + "Charge: " + ChatColor.RED + charge + ChatColor.GREEN + "/" + this.energy + " J"
             );
+            return;
         }
-        else {
-            super.craft(b, menu, p);
+
+        ItemStack[] grid = grid(menu);
+        RecipeIndex.Recipe recipe = this.recipes.find(grid);
+        if (recipe == null) {
+            p.sendMessage(ChatColor.RED + "Invalid Recipe!");
+            return;
+        }
+
+        // crafts are limited by the ingredients, the room in the output and the charge
+        int sets = max ? Math.min(recipe.sets(grid), charge / this.energy) : 1;
+        sets = Math.min(sets, room(menu.getItemInSlot(OUTPUT_SLOTS[0]), recipe.output()));
+        if (sets <= 0) {
+            p.sendMessage(ChatColor.GOLD + "Not enough room!");
+            return;
         }
+
+        ItemStack output = craft(menu, recipe, sets, charge);
+
+        p.sendMessage(ChatColor.GREEN + "Successfully crafted: " + ItemUtils.getItemName(output)
+                + (sets > 1 ? ChatColor.GREEN + " x" + sets : ""));
     }
 
-    @Override
-    protected void onSuccessfulCraft(BlockMenu menu, ItemStack toOutput) {
-        setCharge(menu.getLocation(), 0);
+    private void toggleAutoCraft(BlockMenu menu, Player p) {
+        Location l = menu.getLocation();
+        RecipeIndex.Recipe recipe = null;
+
+        if (this.locked.remove(l) == null) {
+            recipe = this.recipes.find(grid(menu));
+            if (recipe == null) {
+                p.sendMessage(ChatColor.RED + "Put a valid recipe in the grid to lock it!");
+                return;
+            }
+            this.locked.put(l, recipe);
+        }
+
+        BlockStorage.addBlockInfo(l, AUTO_CRAFT, recipe == null ? null : recipe.key());
+        menu.replaceExistingItem(AUTO_SLOT, autoCraftItem(recipe));
+    }
+
+    private void autoCraft(Block b, BlockMenu menu, RecipeIndex.Recipe recipe) {
+        int charge = getCharge(b.getLocation());
+        int sets = Math.min(charge / this.energy, room(menu.getItemInSlot(OUTPUT_SLOTS[0]), recipe.output()));
+        if (sets <= 0) {
+            return;
+        }
+
+        ItemStack[] grid = grid(menu);
+        if (recipe.sets(grid) < sets) {
+            pull(b, menu, recipe, grid, sets);
+        }
+
+        sets = Math.min(sets, recipe.sets(grid));
+        if (sets > 0) {
+            craft(menu, recipe, sets, charge);
+        }
+    }
+
+    /**
+     * Tops up the grid from the counters of adjacent storage units so it holds the given number of sets
+     */
+    private static void pull(Block b, BlockMenu menu, RecipeIndex.Recipe recipe, ItemStack[] grid, int sets) {
+        List<StorageCache> caches = null;
+
+        for (int i = 0 ; i < INPUT_SLOTS.length ; i++) {
+            int amount = recipe.amount(i);
+            if (amount == 0) {
+                continue;
+            }
+
+            ItemStack item = grid[i];
+            int current = item == null ? 0 : item.getAmount();
+            if (current > 0 && !recipe.matches(i, item)) {
+                continue;
+            }
+
+            int needed = Math.min(amount * sets, recipe.maxStackSize(i)) - current;
+            if (needed <= 0) {
+                continue;
+            }
+
+            if (caches == null) {
+                caches = adjacentCaches(b);
+                if (caches.isEmpty()) {
+                    return;
+                }
+            }
+
+            int pulled = 0;
+            for (StorageCache cache : caches) {
+                pulled += cache.extract(recipe.id(i), needed - pulled);
+                if (pulled == needed) {
+                    break;
+                }
+            }
+
+            if (pulled > 0) {
+                ItemStack next = current == 0 ? recipe.ingredient(i, pulled) : item.clone();
+                next.setAmount(current + pulled);
+                grid[i] = next;
+                menu.replaceExistingItem(INPUT_SLOTS[i], next);
+            }
+        }
+    }
+
+    @Nonnull
+    private static List<StorageCache> adjacentCaches(Block b) {
+        List<StorageCache> caches = new ArrayList<>(ADJACENT.length);
+        for (BlockFace face : ADJACENT) {
+            Block relative = b.getRelative(face);
+            SlimefunItem item = BlockStorage.check(relative);
+            if (item instanceof StorageUnit) {
+                StorageCache cache = ((StorageUnit) item).getCache(relative.getLocation());
+                if (cache != null) {
+                    caches.add(cache);
+                }
+            }
+        }
+        return caches;
+    }
+
+    /**
+     * Consumes the ingredients of the given number of sets, outputs the result and uses the energy
+     */
+    @Nonnull
+    private ItemStack craft(BlockMenu menu, RecipeIndex.Recipe recipe, int sets, int charge) {
+        for (int i = 0 ; i < INPUT_SLOTS.length ; i++) {
+            int amount = recipe.amount(i);
+            if (amount > 0) {
+                menu.consumeItem(INPUT_SLOTS[i], amount * sets);
+            }
+        }
+
+        ItemStack output = recipe.output().clone();
+        output.setAmount(output.getAmount() * sets);
+        menu.pushItem(output, OUTPUT_SLOTS);
+        setCharge(menu.getLocation(), charge - this.energy * sets);
+        return output;
+    }
+
+    @Nonnull
+    private static ItemStack[] grid(BlockMenu menu) {
+        ItemStack[] grid = new ItemStack[INPUT_SLOTS.length];
+        for (int i = 0 ; i < INPUT_SLOTS.length ; i++) {
+            grid[i] = menu.getItemInSlot(INPUT_SLOTS[i]);
+        }
+        return grid;
+    }
+
+    @Nonnull
+    private static ItemStack autoCraftItem(@Nullable RecipeIndex.Recipe recipe) {
+        if (recipe == null) {
+            return AUTO_OFF;
+        }
+        return new CustomItemStack(Material.LIME_DYE, "&7Auto-Craft: &aOn",
+                "&7Crafting: " + ItemUtils.getItemName(recipe.output()),
+                "&7Takes ingredients from the grid",
+                "&7and adjacent storage units",
+                "&7Click to turn off"
+        );
+    }
+
+    private static int room(@Nullable ItemStack current, ItemStack output) {
+        if (current == null || current.getType() == Material.AIR) {
+            return output.getMaxStackSize() / output.getAmount();
+        }
+        if (current.isSimilar(output)) {
+            return (current.getMaxStackSize() - current.getAmount()) / output.getAmount();
+        }
+        return 0;
     }
 
     @Nonnull
@@ -101,7 +359,7 @@ public final class InfinityWorkbench extends io.github.mooy1.infinitylib.machine
 
     @Override
     public int getCapacity() {
-        return this.energy;
+        return this.energy * BATCH;
     }
 
 }
@@ -0,0 +1,210 @@
+package io.github.mooy1.infinityexpansion.items.blocks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.inventory.ItemStack;
+
+import io.github.mooy1.infinitylib.common.StackUtils;
+
+/**
+ * Recipes of a crafting grid indexed by the ids in each slot.
+ *
+ * Each recipe is stored under a hash of its shape, and the hash of its ingredients regardless of shape
+ * is kept as a prefilter, so a grid which can't be any recipe is rejected without a map lookup
+ * and a grid which can is only verified against the recipes with the same shape.
+ */
+@ParametersAreNonnullByDefault
+final class RecipeIndex {
+
+    private final Map<Integer, List<Recipe>> shapes = new HashMap<>();
+    private final Set<Integer> contents = new HashSet<>();
+    private final Map<String, Recipe> keys = new HashMap<>();
+    private final Map<String, Recipe> outputs = new HashMap<>();
+    private final int size;
+
+    RecipeIndex(int size) {
+        this.size = size;
+    }
+
+    void add(ItemStack[] input, ItemStack output) {
+        Recipe recipe = new Recipe(input, output, this.size);
+        this.shapes.computeIfAbsent(shapeHash(recipe.ids), k -> new ArrayList<>(1)).add(recipe);
+        this.contents.add(contentHash(recipe.ids));
+        this.keys.putIfAbsent(recipe.key, recipe);
+        this.outputs.putIfAbsent(recipe.outputId(), recipe);
+    }
+
+    /**
+     * Finds a recipe by its {@link Recipe#key()}, or the first recipe added for an output id
+     * which is what older versions saved
+     */
+    @Nullable
+    Recipe get(String key) {
+        Recipe recipe = this.keys.get(key);
+        return recipe == null ? this.outputs.get(key) : recipe;
+    }
+
+    /**
+     * Finds the recipe the grid can craft at least once
+     */
+    @Nullable
+    Recipe find(ItemStack[] grid) {
+        String[] ids = new String[this.size];
+        for (int i = 0 ; i < this.size && i < grid.length ; i++) {
+            ItemStack item = grid[i];
+            if (item != null && item.getAmount() > 0) {
+                ids[i] = StackUtils.getIdOrType(item);
+            }
+        }
+
+        if (!this.contents.contains(contentHash(ids))) {
+            return null;
+        }
+
+        List<Recipe> candidates = this.shapes.get(shapeHash(ids));
+        if (candidates != null) {
+            for (Recipe recipe : candidates) {
+                if (recipe.sets(grid) > 0) {
+                    return recipe;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int shapeHash(String[] ids) {
+        int hash = 1;
+        for (String id : ids) {
+            hash = 31 * hash + (id == null ? 0 : id.hashCode());
+        }
+        return hash;
+    }
+
+    private static int contentHash(String[] ids) {
+        int hash = 0;
+        for (String id : ids) {
+            if (id != null) {
+                // mixed before summing so that the order of the ids doesn't matter but their counts do
+                int h = id.hashCode() * 0x9E3779B9;
+                hash += h ^ (h >>> 16);
+            }
+        }
+        return hash;
+    }
+
+    static final class Recipe {
+
+        private final ItemStack[] input;
+        private final String[] ids;
+        private final int[] amounts;
+        private final boolean[] vanilla;
+        private final ItemStack output;
+        private final String key;
+
+        private Recipe(ItemStack[] input, ItemStack output, int size) {
+            this.input = new ItemStack[size];
+            this.ids = new String[size];
+            this.amounts = new int[size];
+            this.vanilla = new boolean[size];
+            for (int i = 0 ; i < size && i < input.length ; i++) {
+                ItemStack item = input[i];
+                if (item != null && item.getAmount() > 0) {
+                    this.input[i] = item;
+                    this.ids[i] = StackUtils.getIdOrType(item);
+                    this.amounts[i] = item.getAmount();
+                    this.vanilla[i] = StackUtils.getId(item) == null;
+                }
+            }
+            this.output = output;
+
+            // recipes with the same output differ in their ingredients, amounts or shape
+            int hash = shapeHash(this.ids);
+            for (int amount : this.amounts) {
+                hash = 31 * hash + amount;
+            }
+            this.key = outputId() + '#' + Integer.toHexString(hash);
+        }
+
+        /**
+         * Identifies the recipe across restarts, unlike the output id which other recipes may share
+         */
+        @Nonnull
+        String key() {
+            return this.key;
+        }
+
+        @Nonnull
+        ItemStack output() {
+            return this.output;
+        }
+
+        @Nonnull
+        String outputId() {
+            return StackUtils.getIdOrType(this.output);
+        }
+
+        int amount(int slot) {
+            return this.amounts[slot];
+        }
+
+        @Nullable
+        String id(int slot) {
+            return this.ids[slot];
+        }
+
+        int maxStackSize(int slot) {
+            return this.input[slot].getMaxStackSize();
+        }
+
+        /**
+         * A copy of the ingredient in a slot with the given amount
+         */
+        @Nonnull
+        ItemStack ingredient(int slot, int amount) {
+            ItemStack item = this.input[slot].clone();
+            item.setAmount(amount);
+            return item;
+        }
+
+        /**
+         * The number of times the grid can craft this recipe, 0 if it doesn't match
+         */
+        int sets(ItemStack[] grid) {
+            int sets = Integer.MAX_VALUE;
+            for (int i = 0 ; i < this.ids.length ; i++) {
+                ItemStack item = i < grid.length ? grid[i] : null;
+                if (item == null || item.getAmount() <= 0) {
+                    if (this.ids[i] != null) {
+                        return 0;
+                    }
+                }
+                else if (this.ids[i] == null || !matches(i, item)) {
+                    return 0;
+                }
+                else {
+                    sets = Math.min(sets, item.getAmount() / this.amounts[i]);
+                }
+            }
+            return sets == Integer.MAX_VALUE ? 0 : sets;
+        }
+
+        boolean matches(int slot, ItemStack item) {
+            if (!this.ids[slot].equals(StackUtils.getIdOrType(item))) {
+                return false;
+            }
+            // slimefun items only need the same id, vanilla items need the same meta
+            return !this.vanilla[slot] || this.input[slot].isSimilar(item);
+        }
+
+    }
+
+}
@@ -2,23 +2,29 @@ package io.github.mooy1.infinityexpansion.items.blocks;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
 import io.github.mooy1.infinityexpansion.items.materials.Materials;
 import io.github.mooy1.infinityexpansion.items.materials.Strainer;
-import io.github.mooy1.infinityexpansion.utils.Util;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinityexpansion.utils.WaterlogTracker;
 import io.github.mooy1.infinitylib.machines.TickingMenuBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
@@ -41,6 +47,10 @@ public final class StrainerBase extends TickingMenuBlock implements RecipeDispla
 
 
     private static final ItemStack POTATO = new CustomItemStack(Material.POTATO, "&7:&6Potatofish&7:", "&eLucky");
+    private static final ItemStack INPUT_STRAINER = new CustomItemStack(Material.BARRIER, "&cInput a Strainer!");
+    private static final ItemStack COLLECTING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aCollecting...");
+    private static final ItemStack COLLECTED = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aMaterial Collected!");
+    private static final int MAX_WAIT = 1 << 24;
     private static final int STATUS_SLOT = 10;
     private static final int[] OUTPUT_SLOTS = {
             13, 14, 15, 16,
@@ -71,6 +81,7 @@ public final class StrainerBase extends TickingMenuBlock implements RecipeDispla
             new SlimefunItemStack(SlimefunItems.ZINC_DUST, 1),
     };
 
+    private final Map<Location, Roll> rolls = new ConcurrentHashMap<>();
     private final int time;
 
     public StrainerBase(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int time) {
@@ -137,41 +148,77 @@ public final class StrainerBase extends TickingMenuBlock implements RecipeDispla
         return "&7Collects:";
     }
 
+    @Override
+    protected void onBreak(BlockBreakEvent e, BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.rolls.remove(menu.getLocation());
+    }
+
     @Override
     protected void tick(Block b, BlockMenu inv) {
+        long start = AllocationProfiler.start();
+        strain(b, inv);
+        AllocationProfiler.stop(start, this);
+    }
+
+    private void strain(Block b, BlockMenu inv) {
+        Location l = b.getLocation();
 
         //check water
-        if (!Util.isWaterLogged(b)) {
+        if (!WaterlogTracker.isWaterLogged(b)) {
+            this.rolls.remove(l);
             return;
         }
 
         //check input
 
         ItemStack strainer = inv.getItemInSlot(INPUT_SLOTS[0]);
-        int speed = Strainer.getStrainer(strainer);
-
-        if (speed == 0) {
 
+        if (strainer == null) {
             if (inv.hasViewer()) {
-                inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BARRIER, "&cInput a Strainer!"));
+                inv.replaceExistingItem(STATUS_SLOT, INPUT_STRAINER);
             }
-
+            this.rolls.remove(l);
             return;
         }
 
         Random random = ThreadLocalRandom.current();
+        int tick = InfinityExpansion.slimefunTickCount();
+        Roll roll = this.rolls.get(l);
+
+        // the strainer can only change through the menu, so its speed is only read again when it might have
+        if (roll == null || tick >= roll.next || inv.hasViewer() || inv.getUnsavedChanges() != roll.changes) {
+            int speed = Strainer.getStrainer(strainer);
+
+            if (speed == 0) {
+                if (inv.hasViewer()) {
+                    inv.replaceExistingItem(STATUS_SLOT, INPUT_STRAINER);
+                }
+                this.rolls.remove(l);
+                return;
+            }
+
+            if (roll == null || roll.speed != speed) {
+                // the wait is memoryless, so starting over with a new speed is fair
+                roll = new Roll(speed, tick + ticksUntilSuccess(random, this.time / speed) - 1);
+                this.rolls.put(l, roll);
+            }
+            roll.changes = inv.getUnsavedChanges();
+        }
 
         //progress
 
-        if (random.nextInt(this.time / speed) != 0) {
+        if (tick < roll.next) {
 
             if (inv.hasViewer()) {
-                inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aCollecting..."));
+                inv.replaceExistingItem(STATUS_SLOT, COLLECTING);
             }
 
             return;
         }
 
+        roll.next = tick + ticksUntilSuccess(random, this.time / roll.speed);
+
         //fish
 
         if (random.nextInt(10000) == 0) {
@@ -196,11 +243,28 @@ public final class StrainerBase extends TickingMenuBlock implements RecipeDispla
         inv.pushItem(output.clone(), OUTPUT_SLOTS);
 
         if (inv.hasViewer()) {
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aMaterial Collected!"));
+            inv.replaceExistingItem(STATUS_SLOT, COLLECTED);
         }
 
         //reduce durability
 
+        reduceDurability(inv, strainer, random);
+    }
+
+    /**
+     * Samples the number of ticks until the next success, where each tick succeeds with a chance of 1 in
+     * the given bound. This is the same as rolling every tick, but only needs one random number per success.
+     */
+    private static int ticksUntilSuccess(Random random, int bound) {
+        if (bound <= 1) {
+            return 1;
+        }
+        double u = 1 - random.nextDouble();
+        double ticks = Math.floor(Math.log(u) / Math.log1p(-1D / bound)) + 1;
+        return ticks >= MAX_WAIT ? MAX_WAIT : (int) ticks;
+    }
+
+    private static void reduceDurability(BlockMenu inv, ItemStack strainer, Random random) {
         if (random.nextInt(strainer.getEnchantmentLevel(Enchantment.DURABILITY) + 3 * strainer.getEnchantmentLevel(Enchantment.MENDING) + 1) == 0) {
             ItemMeta itemMeta = strainer.getItemMeta();
             Damageable durability = (Damageable) itemMeta;
@@ -222,4 +286,17 @@ public final class StrainerBase extends TickingMenuBlock implements RecipeDispla
         }
     }
 
+    private static final class Roll {
+
+        private final int speed;
+        private int next;
+        private int changes;
+
+        private Roll(int speed, int next) {
+            this.speed = speed;
+            this.next = next;
+        }
+
+    }
+
 }
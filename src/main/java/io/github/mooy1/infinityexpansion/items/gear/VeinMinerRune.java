@@ -35,6 +35,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
 import io.github.mooy1.infinitylib.common.CoolDowns;
 import io.github.mooy1.infinitylib.common.Events;
@@ -265,7 +266,8 @@ public final class VeinMinerRune extends SlimefunItem implements Listener, NotPl
         return false;
     }
 
-    private static void getVein(Set<Location> checked, Set<Block> found, Location l, Block b) {
+    @VisibleForTesting
+    static void getVein(Set<Location> checked, Set<Block> found, Location l, Block b) {
         if (found.size() >= MAX) {
             return;
         }
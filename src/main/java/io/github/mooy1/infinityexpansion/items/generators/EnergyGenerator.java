@@ -7,6 +7,7 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
 import io.github.mooy1.infinitylib.machines.MachineLore;
 import io.github.mooy1.infinitylib.machines.MenuBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
@@ -66,6 +67,7 @@ public final class EnergyGenerator extends MenuBlock implements EnergyNetProvide
     @SuppressWarnings("deprecation")
     @Override
     public int getGeneratedOutput(Location l, me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config data) {
+        long start = EnergyProfiler.start();
         int gen = this.type.generate(l.getWorld(), l.getBlock(), this.generation);
 
         BlockMenu inv = BlockStorage.getInventory(l);
@@ -88,6 +90,7 @@ public final class EnergyGenerator extends MenuBlock implements EnergyNetProvide
             }
         }
 
+        EnergyProfiler.stop(start, this, l);
         return gen;
     }
 
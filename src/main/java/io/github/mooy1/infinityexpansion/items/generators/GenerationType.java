@@ -8,7 +8,7 @@ import lombok.Getter;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 
-import io.github.mooy1.infinityexpansion.utils.Util;
+import io.github.mooy1.infinityexpansion.utils.WaterlogTracker;
 
 @AllArgsConstructor
 public enum GenerationType {
@@ -16,7 +16,7 @@ public enum GenerationType {
     HYDROELECTRIC("Hydroelectric") {
         @Override
         protected int generate(@Nonnull World world, @Nonnull Block block, int def) {
-            return Util.isWaterLogged(block) ? def : 0;
+            return WaterlogTracker.isWaterLogged(block) ? def : 0;
         }
     },
     GEOTHERMAL("Geothermal") {
@@ -10,9 +10,12 @@ import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.items.materials.Materials;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
 import io.github.mooy1.infinitylib.common.StackUtils;
 import io.github.mooy1.infinitylib.machines.MenuBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
@@ -48,9 +51,13 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
 
     @Override
     protected void onNewInstance(@Nonnull BlockMenu menu, @Nonnull Block b) {
-        if (BlockStorage.getLocationInfo(b.getLocation(), "progress") == null) {
-            BlockStorage.addBlockInfo(b, "progress", "0");
-        }
+
+    }
+
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        BlockDataCache.remove(menu.getLocation());
     }
 
     @Override
@@ -102,9 +109,16 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
     @SuppressWarnings("deprecation")
     @Override
     public int getGeneratedOutput(@Nonnull Location l, @Nonnull me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config config) {
+        long start = EnergyProfiler.start();
+        int gen = generate(l);
+        EnergyProfiler.stop(start, this, l);
+        return gen;
+    }
+
+    private int generate(@Nonnull Location l) {
         BlockMenu inv = BlockStorage.getInventory(l);
 
-        int progress = Integer.parseInt(BlockStorage.getLocationInfo(l, "progress"));
+        int progress = BlockDataCache.getInt(l, "progress", 0);
         ItemStack infinityInput = inv.getItemInSlot(INPUT_SLOTS[0]);
         ItemStack voidInput = inv.getItemInSlot(INPUT_SLOTS[1]);
 
@@ -138,7 +152,7 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
             }
             inv.consumeItem(INPUT_SLOTS[0]);
             inv.consumeItem(INPUT_SLOTS[1]);
-            BlockStorage.addBlockInfo(l, "progress", "1");
+            BlockDataCache.setInt(l, "progress", 1);
             return this.gen;
 
         }
@@ -148,7 +162,7 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
             if (inv.hasViewer()) {
                 inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aFinished Generation"));
             }
-            BlockStorage.addBlockInfo(l, "progress", "0");
+            BlockDataCache.setInt(l, "progress", 0);
             return this.gen;
 
         }
@@ -172,7 +186,7 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
                         "&aTime until void ingot needed: " + (VOID_INTERVAL - Math.floorMod(progress, VOID_INTERVAL))
                 ));
             }
-            BlockStorage.addBlockInfo(l, "progress", String.valueOf(progress + 1));
+            BlockDataCache.setInt(l, "progress", progress + 1);
             inv.consumeItem(INPUT_SLOTS[1]);
             return this.gen;
 
@@ -188,7 +202,7 @@ public final class InfinityReactor extends MenuBlock implements EnergyNetProvide
                     )
             );
         }
-        BlockStorage.addBlockInfo(l, "progress", String.valueOf(progress + 1));
+        BlockDataCache.setInt(l, "progress", progress + 1);
         return this.gen;
     }
 
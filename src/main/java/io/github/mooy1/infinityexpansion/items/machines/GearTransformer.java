@@ -1,13 +1,17 @@
 package io.github.mooy1.infinityexpansion.items.machines;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
@@ -17,7 +21,6 @@ import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.RecipeDisplayItem;
-import io.github.thebusybiscuit.slimefun4.libraries.dough.collections.Pair;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
@@ -25,6 +28,8 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 /**
  * Machine that changes the material of gear and tools
  *
+ * Pieces and tier materials are looked up in enum maps built once, extra tiers can be added in the config
+ *
  * @author Mooy1
  */
 @ParametersAreNonnullByDefault
@@ -34,51 +39,26 @@ public final class GearTransformer extends AbstractEnergyCrafter implements Reci
     private static final int[] OUTPUT_SLOTS = { 40 };
     private static final int[] INPUT_SLOTS = { 10, 16 };
     private static final int STATUS_SLOT = 13;
-    private static final ItemStack[] TOOL_RECIPE = {
-            new ItemStack(Material.OAK_PLANKS, 4),
-            new ItemStack(Material.COBBLESTONE, 4),
-            new ItemStack(Material.IRON_INGOT, 4),
-            new ItemStack(Material.GOLD_INGOT, 4),
-            new ItemStack(Material.DIAMOND, 4),
-            new ItemStack(Material.NETHERITE_INGOT, 2)
-    };
-    private static final ItemStack[] ARMOR_RECIPE = {
-            new ItemStack(Material.LEATHER, 9),
-            new ItemStack(Material.CHAIN, 9),
-            new ItemStack(Material.IRON_INGOT, 9),
-            new ItemStack(Material.GOLD_INGOT, 9),
-            new ItemStack(Material.DIAMOND, 9),
-            new ItemStack(Material.NETHERITE_INGOT, 2)
-    };
-    private static final String[] ARMOR_TYPES = {
-            "_HELMET",
-            "_CHESTPLATE",
-            "_LEGGINGS",
-            "_BOOTS"
-    };
-    private static final String[] TOOL_TYPES = {
-            "_SWORD",
-            "_PICKAXE",
-            "_AXE",
-            "_SHOVEL",
-            "_HOE"
-    };
-    private static final String[] TOOL_MATERIALS = {
-            "WOODEN",
-            "STONE",
-            "IRON",
-            "GOLDEN",
-            "DIAMOND",
-            "NETHERITE"
-    };
-    private static final String[] ARMOR_MATERIALS = {
-            "LEATHER",
-            "CHAINMAIL",
-            "IRON",
-            "GOLDEN",
-            "DIAMOND",
-            "NETHERITE"
-    };
+    private static final ItemStack NO_TOOL_ITEM = new CustomItemStack(Material.BLUE_STAINED_GLASS_PANE, "&9Input a tool or piece of gear");
+    private static final ItemStack SLIMEFUN_ITEM = new CustomItemStack(Material.RED_STAINED_GLASS_PANE, "&cSlimefun items may not have their material changed!");
+    private static final ItemStack NOT_TOOL_ITEM = new CustomItemStack(Material.BARRIER, "&cNot a tool or piece of gear!");
+    private static final ItemStack NO_MATERIAL_ITEM = new CustomItemStack(Material.BLUE_STAINED_GLASS_PANE, "&9Input materials");
+    private static final ItemStack INVALID_MATERIAL_ITEM = new CustomItemStack(Material.BARRIER, "&cInvalid Materials!");
+    private static final ItemStack TRANSFORMED_ITEM = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aTool Transformed!");
+    private static final List<Tier> TIERS = new ArrayList<>();
+    private static final Map<Material, Kind> PIECES = new EnumMap<>(Material.class);
+    private static final Map<Material, Tier> TOOL_TIERS = new EnumMap<>(Material.class);
+    private static final Map<Material, Tier> ARMOR_TIERS = new EnumMap<>(Material.class);
+
+    static {
+        addTier("WOODEN", "LEATHER", new ItemStack(Material.OAK_PLANKS, 4), new ItemStack(Material.LEATHER, 9));
+        addTier("STONE", "CHAINMAIL", new ItemStack(Material.COBBLESTONE, 4), new ItemStack(Material.CHAIN, 9));
+        addTier("IRON", "IRON", new ItemStack(Material.IRON_INGOT, 4), new ItemStack(Material.IRON_INGOT, 9));
+        addTier("GOLDEN", "GOLDEN", new ItemStack(Material.GOLD_INGOT, 4), new ItemStack(Material.GOLD_INGOT, 9));
+        addTier("DIAMOND", "DIAMOND", new ItemStack(Material.DIAMOND, 4), new ItemStack(Material.DIAMOND, 9));
+        addTier("NETHERITE", "NETHERITE", new ItemStack(Material.NETHERITE_INGOT, 2), new ItemStack(Material.NETHERITE_INGOT, 2));
+        loadConfigTiers();
+    }
 
     public GearTransformer(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int energy) {
         super(category, item, type, recipe, energy, STATUS_SLOT);
@@ -121,69 +101,63 @@ public final class GearTransformer extends AbstractEnergyCrafter implements Reci
         return OUTPUT_SLOTS;
     }
 
-    @Nullable
-    private static Pair<Material, Integer> getOutput(ItemStack inputMaterial, String inputToolType) {
-
-        for (String toolType : TOOL_TYPES) {
-            if (inputToolType.equals(toolType)) { //make sure its a tool
-
-                for (int i = 0 ; i < TOOL_RECIPE.length ; i++) { //compare to each recipe
-                    ItemStack recipe = TOOL_RECIPE[i];
-
-                    if (inputMaterial.getType() == recipe.getType() && inputMaterial.getAmount() >= recipe.getAmount()) {
-
-                        return new Pair<>(Material.getMaterial(TOOL_MATERIALS[i] + toolType), recipe.getAmount());
-                    }
-                }
-
-                break;
+    /**
+     * Adds a tier, the prefixes are combined with each piece name such as "_SWORD" or "_HELMET" to find its items
+     */
+    private static void addTier(@Nullable String toolPrefix, @Nullable String armorPrefix,
+                                @Nullable ItemStack toolRecipe, @Nullable ItemStack armorRecipe) {
+        Tier tier = new Tier(toolRecipe, armorRecipe);
+        for (Kind kind : Kind.values()) {
+            String prefix = kind.armor ? armorPrefix : toolPrefix;
+            if (prefix == null || (kind.armor ? armorRecipe : toolRecipe) == null) {
+                continue;
+            }
+            Material material = Material.getMaterial(prefix + kind.suffix);
+            if (material != null) {
+                tier.pieces.put(kind, material);
+                PIECES.putIfAbsent(material, kind);
             }
         }
+        if (toolRecipe != null) {
+            TOOL_TIERS.putIfAbsent(toolRecipe.getType(), tier);
+        }
+        if (armorRecipe != null) {
+            ARMOR_TIERS.putIfAbsent(armorRecipe.getType(), tier);
+        }
+        TIERS.add(tier);
+    }
 
-        for (String armorType : ARMOR_TYPES) {
-            if (inputToolType.equals(armorType)) { //make sure its a armor
-
-                for (int i = 0 ; i < ARMOR_RECIPE.length ; i++) { //compare to each recipe
-                    ItemStack recipe = ARMOR_RECIPE[i];
-
-                    if (inputMaterial.getType() == recipe.getType() && inputMaterial.getAmount() >= recipe.getAmount()) {
-
-                        return new Pair<>(Material.getMaterial(ARMOR_MATERIALS[i] + armorType), recipe.getAmount());
-                    }
-                }
-
-                break;
+    private static void loadConfigTiers() {
+        ConfigurationSection section = InfinityExpansion.config().getConfigurationSection("gear-transformer-tiers");
+        if (section == null) {
+            return;
+        }
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection tier = section.getConfigurationSection(key);
+            if (tier == null) {
+                continue;
             }
+            ItemStack toolRecipe = getRecipe(key, tier.getString("tool-material"), tier.getInt("tool-amount", 4));
+            ItemStack armorRecipe = getRecipe(key, tier.getString("armor-material"), tier.getInt("armor-amount", 9));
+            if (toolRecipe == null && armorRecipe == null) {
+                InfinityExpansion.log(Level.WARNING, "Gear transformer tier '" + key + "' has no valid materials, skipping it!");
+                continue;
+            }
+            addTier(tier.getString("tool-prefix"), tier.getString("armor-prefix"), toolRecipe, armorRecipe);
         }
-
-        return null;
     }
 
     @Nullable
-    private static String getType(ItemStack item) {
-        Material material = item.getType();
-
-        for (String armorType : ARMOR_TYPES) {
-
-            for (String armorMaterial : ARMOR_MATERIALS) {
-
-                if (material == Material.getMaterial(armorMaterial + armorType)) {
-                    return armorType;
-                }
-            }
+    private static ItemStack getRecipe(String tier, @Nullable String materialName, int amount) {
+        if (materialName == null) {
+            return null;
         }
-
-        for (String toolType : TOOL_TYPES) {
-
-            for (String toolMaterial : TOOL_MATERIALS) {
-
-                if (material == Material.getMaterial(toolMaterial + toolType)) {
-                    return toolType;
-                }
-            }
+        Material material = Material.matchMaterial(materialName);
+        if (material == null || !material.isItem()) {
+            InfinityExpansion.log(Level.WARNING, "Invalid material '" + materialName + "' in gear transformer tier '" + tier + "'!");
+            return null;
         }
-        return null;
-
+        return new ItemStack(material, Math.max(1, Math.min(amount, material.getMaxStackSize())));
     }
 
     @Nonnull
@@ -191,9 +165,13 @@ public final class GearTransformer extends AbstractEnergyCrafter implements Reci
     public List<ItemStack> getDisplayRecipes() {
         List<ItemStack> items = new ArrayList<>();
 
-        for (int i = 0 ; i < TOOL_RECIPE.length ; i++) {
-            items.add(TOOL_RECIPE[i]);
-            items.add(ARMOR_RECIPE[i]);
+        for (Tier tier : TIERS) {
+            if (tier.toolRecipe != null) {
+                items.add(tier.toolRecipe);
+            }
+            if (tier.armorRecipe != null) {
+                items.add(tier.armorRecipe);
+            }
         }
 
         return items;
@@ -204,61 +182,94 @@ public final class GearTransformer extends AbstractEnergyCrafter implements Reci
         ItemStack inputItem = inv.getItemInSlot(INPUT_SLOTS[0]);
 
         if (inputItem == null) { //no input
-
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BLUE_STAINED_GLASS_PANE, "&9Input a tool or piece of gear"));
+            this.status.show(inv, STATUS_SLOT, NO_TOOL_ITEM);
             return;
-
         }
 
         if (!SF && StackUtils.getId(inputItem) != null) {
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.RED_STAINED_GLASS_PANE, "&cSlimefun items may not have their material changed!"));
+            this.status.show(inv, STATUS_SLOT, SLIMEFUN_ITEM);
             return;
         }
 
-        String inputToolType = getType(inputItem);
-
-        if (inputToolType == null) { //invalid input
+        Kind kind = PIECES.get(inputItem.getType());
 
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BARRIER, "&cNot a tool or piece of gear!"));
+        if (kind == null) { //invalid input
+            this.status.show(inv, STATUS_SLOT, NOT_TOOL_ITEM);
             return;
-
         }
 
         ItemStack inputMaterial = inv.getItemInSlot(INPUT_SLOTS[1]);
 
         if (inputMaterial == null) { //no material
-
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BLUE_STAINED_GLASS_PANE, "&9Input materials"));
+            this.status.show(inv, STATUS_SLOT, NO_MATERIAL_ITEM);
             return;
-
         }
 
-        Pair<Material, Integer> pair = getOutput(inputMaterial, inputToolType);
+        Tier tier = (kind.armor ? ARMOR_TIERS : TOOL_TIERS).get(inputMaterial.getType());
+        Material output = tier == null ? null : tier.pieces.get(kind);
 
-        if (pair == null) { //invalid material
-
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.BARRIER, "&cInvalid Materials!"));
+        if (output == null || inputMaterial.getAmount() < tier.getRecipe(kind).getAmount()) { //invalid material
+            this.status.show(inv, STATUS_SLOT, INVALID_MATERIAL_ITEM);
             return;
-
         }
 
         if (inv.getItemInSlot(OUTPUT_SLOTS[0]) != null) { //valid material, not enough room
-
-            inv.replaceExistingItem(STATUS_SLOT, NO_ROOM_ITEM);
+            this.status.show(inv, STATUS_SLOT, NO_ROOM_ITEM);
             return;
-
         }
 
         //output
         setCharge(inv.getLocation(), 0);
 
-        inputItem.setType(pair.getFirstValue());
+        inputItem.setType(output);
         inv.pushItem(inputItem, OUTPUT_SLOTS);
 
         inv.replaceExistingItem(INPUT_SLOTS[0], null);
-        inv.consumeItem(INPUT_SLOTS[1], pair.getSecondValue());
+        inv.consumeItem(INPUT_SLOTS[1], tier.getRecipe(kind).getAmount());
+
+        this.status.show(inv, STATUS_SLOT, TRANSFORMED_ITEM);
+    }
+
+    private enum Kind {
+
+        HELMET(true),
+        CHESTPLATE(true),
+        LEGGINGS(true),
+        BOOTS(true),
+        SWORD(false),
+        PICKAXE(false),
+        AXE(false),
+        SHOVEL(false),
+        HOE(false);
+
+        private final boolean armor;
+        private final String suffix;
+
+        Kind(boolean armor) {
+            this.armor = armor;
+            this.suffix = "_" + name();
+        }
+
+    }
+
+    private static final class Tier {
+
+        private final ItemStack toolRecipe;
+        private final ItemStack armorRecipe;
+        private final Map<Kind, Material> pieces = new EnumMap<>(Kind.class);
+
+        private Tier(@Nullable ItemStack toolRecipe, @Nullable ItemStack armorRecipe) {
+            this.toolRecipe = toolRecipe;
+            this.armorRecipe = armorRecipe;
+        }
+
+        /**
+         * The recipe for the kind of piece, only null if the tier has no piece of that kind
+         */
+        private ItemStack getRecipe(Kind kind) {
+            return kind.armor ? this.armorRecipe : this.toolRecipe;
+        }
 
-        inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aTool Transformed!"));
     }
 
 }
@@ -8,16 +8,16 @@ import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
-import lombok.Setter;
-
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.abstracts.IdleBackoff;
 import io.github.thebusybiscuit.slimefun4.api.geo.GEOResource;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
@@ -31,19 +31,27 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 
 @ParametersAreNonnullByDefault
-public final class GeoQuarry extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class GeoQuarry extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final int STATUS = 4;
     private static final int[] OUTPUT_SLOTS = { 29, 30, 31, 32, 33, 38, 39, 40, 41, 42 };
+    private static final ItemStack DRILLING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aDrilling...");
+    private static final ItemStack FOUND = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aFound!");
 
     private final Map<Pair<Biome, World.Environment>, RandomizedSet<ItemStack>> recipes = new HashMap<>();
-    @Setter
-    private int ticksPerOutput;
+    private final IdleBackoff idle = new IdleBackoff();
+    private int ticksPerOutput = 1;
 
     public GeoQuarry(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe) {
         super(category, item, type, recipe);
     }
 
+    @Nonnull
+    public GeoQuarry ticksPerOutput(int ticksPerOutput) {
+        this.ticksPerOutput = Math.max(1, ticksPerOutput);
+        return this;
+    }
+
     @Override
     protected void setup(@Nonnull BlockMenuPreset blockMenuPreset) {
         blockMenuPreset.drawBackground(new int[] {
@@ -70,10 +78,20 @@ public final class GeoQuarry extends AbstractMachineBlock implements RecipeDispl
     }
 
     @Override
-    protected boolean process(Block b, BlockMenu inv) {
+    protected void onBreak(BlockBreakEvent e, BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.idle.remove(menu.getLocation());
+    }
+
+    @Override
+    protected boolean work(Block b, BlockMenu inv) {
+        if (this.idle.sleeping(inv)) {
+            return false;
+        }
+
         if (InfinityExpansion.slimefunTickCount() % this.ticksPerOutput != 0) {
             if (inv.hasViewer()) {
-                inv.replaceExistingItem(STATUS, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aDrilling..."));
+                inv.replaceExistingItem(STATUS, DRILLING);
             }
             return true;
         }
@@ -95,12 +113,14 @@ public final class GeoQuarry extends AbstractMachineBlock implements RecipeDispl
             if (inv.hasViewer()) {
                 inv.replaceExistingItem(STATUS, NO_ROOM_ITEM);
             }
+            this.idle.idle(inv);
             return false;
         }
 
         inv.pushItem(output.clone(), OUTPUT_SLOTS);
+        this.idle.active(b.getLocation());
         if (inv.hasViewer()) {
-            inv.replaceExistingItem(STATUS, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aFound!"));
+            inv.replaceExistingItem(STATUS, FOUND);
         }
         return true;
     }
@@ -7,14 +7,15 @@ import java.util.Map;
 
 import javax.annotation.Nonnull;
 
-import lombok.Setter;
-
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.abstracts.IdleBackoff;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
@@ -23,7 +24,7 @@ import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 
-public final class GrowingMachine extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class GrowingMachine extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final int[] OUTPUT_SLOTS = {
             13, 14, 15, 16,
@@ -36,29 +37,51 @@ public final class GrowingMachine extends AbstractMachineBlock implements Recipe
     private static final ItemStack GROWING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aGrowing...");
     private static final ItemStack INPUT_PLANT = new CustomItemStack(Material.BLUE_STAINED_GLASS_PANE, "&9Input a plant!");
 
-    @Setter
-    private EnumMap<Material, ItemStack[]> recipes;
-    @Setter
-    private int ticksPerOutput;
+    private final Map<Material, Output> outputs = new EnumMap<>(Material.class);
+    private final IdleBackoff idle = new IdleBackoff();
+    private EnumMap<Material, ItemStack[]> recipes = new EnumMap<>(Material.class);
+    private int ticksPerOutput = 1;
 
     public GrowingMachine(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe) {
         super(category, item, recipeType, recipe);
     }
 
+    @Nonnull
+    public GrowingMachine recipes(EnumMap<Material, ItemStack[]> recipes) {
+        this.recipes = recipes;
+        this.outputs.clear();
+        for (Map.Entry<Material, ItemStack[]> entry : recipes.entrySet()) {
+            this.outputs.put(entry.getKey(), new Output(entry.getValue()));
+        }
+        return this;
+    }
+
+    @Nonnull
+    public GrowingMachine ticksPerOutput(int ticksPerOutput) {
+        this.ticksPerOutput = Math.max(1, ticksPerOutput);
+        return this;
+    }
+
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.idle.remove(menu.getLocation());
+    }
+
     @Override
-    protected boolean process(@Nonnull Block b, @Nonnull BlockMenu menu) {
+    protected boolean work(@Nonnull Block b, @Nonnull BlockMenu menu) {
+        if (this.idle.sleeping(menu)) {
+            return false;
+        }
+
         ItemStack input = menu.getItemInSlot(INPUT_SLOTS[0]);
-        if (input != null && this.recipes.containsKey(input.getType())) {
+        Output output = input == null ? null : this.outputs.get(input.getType());
+        if (output != null) {
             if (menu.hasViewer()) {
                 menu.replaceExistingItem(STATUS_SLOT, GROWING);
             }
             if (InfinityExpansion.slimefunTickCount() % this.ticksPerOutput == 0) {
-                ItemStack[] output = this.recipes.get(input.getType());
-                if (output != null) {
-                    for (ItemStack item : output) {
-                        menu.pushItem(item.clone(), OUTPUT_SLOTS);
-                    }
-                }
+                output(b.getLocation(), menu, output);
             }
             return true;
         }
@@ -70,6 +93,19 @@ public final class GrowingMachine extends AbstractMachineBlock implements Recipe
         }
     }
 
+    /**
+     * Outputs one cycle, whatever doesn't fit is lost like when a full machine pushes items,
+     * and the machine sleeps instead of scanning the full output every cycle.
+     */
+    private void output(Location l, BlockMenu menu, Output output) {
+        if (output.merge(menu)) {
+            this.idle.active(l);
+        }
+        else {
+            this.idle.idle(menu);
+        }
+    }
+
     @Override
     protected int getStatusSlot() {
         return STATUS_SLOT;
@@ -117,4 +153,102 @@ public final class GrowingMachine extends AbstractMachineBlock implements Recipe
         return OUTPUT_SLOTS;
     }
 
+    /**
+     * The outputs of a recipe with similar items combined, which are never given to the menu directly
+     */
+    private static final class Output {
+
+        private final ItemStack[] templates;
+        private final int[] amounts;
+        private final int[] remaining;
+
+        private Output(ItemStack[] items) {
+            List<ItemStack> templates = new ArrayList<>();
+            List<Integer> amounts = new ArrayList<>();
+            outer : for (ItemStack item : items) {
+                for (int i = 0 ; i < templates.size() ; i++) {
+                    if (templates.get(i).isSimilar(item)) {
+                        amounts.set(i, amounts.get(i) + item.getAmount());
+                        continue outer;
+                    }
+                }
+                ItemStack template = item.clone();
+                template.setAmount(1);
+                templates.add(template);
+                amounts.add(item.getAmount());
+            }
+            this.templates = templates.toArray(new ItemStack[0]);
+            this.amounts = new int[amounts.size()];
+            for (int i = 0 ; i < this.amounts.length ; i++) {
+                this.amounts[i] = amounts.get(i);
+            }
+            this.remaining = new int[this.amounts.length];
+        }
+
+        /**
+         * Merges the output of a cycle into the menu with a single pass over the output slots,
+         * existing stacks are increased in place and new stacks are only made for empty slots.
+         * Outputs are shared by every machine with the recipe, so merges lock to reuse the remaining amounts.
+         *
+         * @return if everything fit
+         */
+        private synchronized boolean merge(BlockMenu menu) {
+            int[] remaining = this.remaining;
+            int left = 0;
+            for (int i = 0 ; i < remaining.length ; i++) {
+                remaining[i] = this.amounts[i];
+                left += remaining[i];
+            }
+
+            int empty = 0;
+            boolean changed = false;
+
+            for (int slot = 0 ; slot < OUTPUT_SLOTS.length && left > 0 ; slot++) {
+                ItemStack item = menu.getItemInSlot(OUTPUT_SLOTS[slot]);
+                if (item == null) {
+                    empty |= 1 << slot;
+                    continue;
+                }
+                for (int i = 0 ; i < remaining.length ; i++) {
+                    if (item.getType() == this.templates[i].getType() && this.templates[i].isSimilar(item)) {
+                        int room = item.getMaxStackSize() - item.getAmount();
+                        if (remaining[i] > 0 && room > 0) {
+                            int add = Math.min(room, remaining[i]);
+                            item.setAmount(item.getAmount() + add);
+                            remaining[i] -= add;
+                            left -= add;
+                            changed = true;
+                        }
+                        break;
+                    }
+                }
+            }
+
+            for (int slot = 0 ; slot < OUTPUT_SLOTS.length && left > 0 ; slot++) {
+                if ((empty & (1 << slot)) == 0) {
+                    continue;
+                }
+                for (int i = 0 ; i < remaining.length ; i++) {
+                    if (remaining[i] > 0) {
+                        ItemStack item = this.templates[i].clone();
+                        int amount = Math.min(item.getMaxStackSize(), remaining[i]);
+                        item.setAmount(amount);
+                        menu.replaceExistingItem(OUTPUT_SLOTS[slot], item);
+                        remaining[i] -= amount;
+                        left -= amount;
+                        break;
+                    }
+                }
+            }
+
+            if (changed) {
+                // stacks changed in place aren't tracked by the menu
+                menu.markDirty();
+            }
+
+            return left == 0;
+        }
+
+    }
+
 }
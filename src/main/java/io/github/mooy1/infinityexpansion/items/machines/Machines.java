@@ -241,6 +241,15 @@ public final class Machines {
             "",
             MachineLore.energyPerSecond(240)
     );
+    public static final SlimefunItemStack PIPELINED_STONEWORKS_FACTORY = new SlimefunItemStack(
+            "PIPELINED_STONEWORKS_FACTORY",
+            Material.SMOKER,
+            "&8Pipelined Stoneworks Factory",
+            "&7Generates cobblestone and moves batches of it",
+            "&7through a chain of processing stages",
+            "",
+            MachineLore.energyPerSecond(960)
+    );
     public static final SlimefunItemStack VOID_HARVESTER = new SlimefunItemStack(
             "VOID_HARVESTER",
             Material.OBSIDIAN,
@@ -279,6 +288,11 @@ public final class Machines {
                 SlimefunItems.ELECTRIC_FURNACE_3, Materials.MACHINE_CIRCUIT, SlimefunItems.ELECTRIC_ORE_GRINDER,
                 Materials.MAGSTEEL_PLATE, SlimefunItems.ELECTRIC_PRESS, Materials.MAGSTEEL_PLATE
         }).energyPerTick(240).register(plugin);
+        new PipelinedStoneworksFactory(Groups.ADVANCED_MACHINES, PIPELINED_STONEWORKS_FACTORY, RecipeType.ENHANCED_CRAFTING_TABLE, new ItemStack[] {
+                Materials.MACHINE_PLATE, STONEWORKS_FACTORY, Materials.MACHINE_PLATE,
+                STONEWORKS_FACTORY, Materials.MACHINE_CORE, STONEWORKS_FACTORY,
+                Materials.MACHINE_PLATE, STONEWORKS_FACTORY, Materials.MACHINE_PLATE
+        }).energyPerTick(960).register(plugin);
 
         // SingularityConstructor without .speed(...) chaining (method not present in your class)
         new SingularityConstructor(Groups.ADVANCED_MACHINES, SINGULARITY_CONSTRUCTOR, RecipeType.ENHANCED_CRAFTING_TABLE, new ItemStack[] {
@@ -10,9 +10,11 @@ import lombok.Setter;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.abstracts.IdleBackoff;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
@@ -26,10 +28,13 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
  *
  * @author Mooy1
  */
-public final class MaterialGenerator extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class MaterialGenerator extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final int[] OUTPUT_SLOTS = { 13 };
     private static final int STATUS_SLOT = 4;
+    private static final ItemStack GENERATING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aGenerating...");
+
+    private final IdleBackoff idle = new IdleBackoff();
 
     @Setter
     private int speed;
@@ -68,6 +73,12 @@ public final class MaterialGenerator extends AbstractMachineBlock implements Rec
 
     }
 
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.idle.remove(menu.getLocation());
+    }
+
     @Nonnull
     @Override
     public List<ItemStack> getDisplayRecipes() {
@@ -84,22 +95,34 @@ public final class MaterialGenerator extends AbstractMachineBlock implements Rec
     }
 
     @Override
-    protected boolean process(@Nonnull Block b, @Nonnull BlockMenu inv) {
-        ItemStack output = new ItemStack(this.material, this.speed);
+    protected boolean work(@Nonnull Block b, @Nonnull BlockMenu inv) {
+        if (this.idle.sleeping(inv)) {
+            return false;
+        }
 
-        if (!inv.fits(output, OUTPUT_SLOTS)) {
+        // only one output slot, so check it directly instead of making a stack to test if it fits
+        ItemStack current = inv.getItemInSlot(OUTPUT_SLOTS[0]);
 
+        if (current == null) {
+            inv.replaceExistingItem(OUTPUT_SLOTS[0], new ItemStack(this.material, this.speed));
+        }
+        else if (current.getType() == this.material && !current.hasItemMeta()
+                && current.getAmount() + this.speed <= current.getMaxStackSize()) {
+            current.setAmount(current.getAmount() + this.speed);
+            inv.markDirty();
+        }
+        else {
             if (inv.hasViewer()) {
                 inv.replaceExistingItem(STATUS_SLOT, NO_ROOM_ITEM);
             }
+            this.idle.idle(inv);
             return false;
-
         }
 
-        inv.pushItem(output, OUTPUT_SLOTS);
+        this.idle.active(b.getLocation());
 
         if (inv.hasViewer()) {
-            inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aGenerating..."));
+            inv.replaceExistingItem(STATUS_SLOT, GENERATING);
         }
 
         return true;
@@ -0,0 +1,226 @@
+package io.github.mooy1.infinityexpansion.items.machines;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.inventory.ItemStack;
+
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
+import io.github.thebusybiscuit.slimefun4.core.attributes.NotHopperable;
+import io.github.thebusybiscuit.slimefun4.core.attributes.RecipeDisplayItem;
+import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
+import io.github.thebusybiscuit.slimefun4.utils.ChestMenuUtils;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
+import me.mrCookieSlime.Slimefun.api.inventory.DirtyChestMenu;
+
+/**
+ * Upgraded stoneworks factory which runs a chain of stages defined in the config,
+ * starting from cobblestone and moving a batch of items through every stage each tick.
+ *
+ * Items in progress are kept in a small buffer of counts per factory instead of menu slots,
+ * saved through the block data cache. Stage slots are only drawn while someone is viewing the menu,
+ * and only when their count changed since the last draw, from items built once for every count.
+ * A factory where no stage can move anything takes no energy.
+ */
+@ParametersAreNonnullByDefault
+public final class PipelinedStoneworksFactory extends AbstractProfiledMachine implements RecipeDisplayItem, NotHopperable {
+
+    private static final int BATCH_SIZE = InfinityExpansion.config().getInt("stoneworks-pipeline.batch-size", 1, 64);
+    private static final int BUFFER_SIZE = BATCH_SIZE * 4;
+    private static final int[] STAGE_SLOTS = { 9, 10, 11, 12, 13, 14, 15, 16, 17 };
+    private static final Material[] STAGES = loadStages();
+    private static final String[] BUFFER_KEYS = bufferKeys();
+    private static final ItemStack[][] STAGE_ITEMS = stageItems();
+    private static final int[] OUTPUT_SLOTS = { 29, 30, 31, 32, 33 };
+    private static final int[] OUT_BORDER = { 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 34, 35 };
+    private static final int[] BACKGROUND = { 0, 1, 2, 3, 5, 6, 7, 8 };
+    private static final int STATUS_SLOT = 4;
+    private static final ItemStack PROCESSING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aProcessing");
+
+    private final Map<Location, Pipeline> pipelines = new ConcurrentHashMap<>();
+
+    public PipelinedStoneworksFactory(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe) {
+        super(category, item, recipeType, recipe);
+    }
+
+    @Nonnull
+    private static Material[] loadStages() {
+        List<Material> stages = new ArrayList<>();
+        stages.add(Material.COBBLESTONE);
+        for (String name : InfinityExpansion.config().getStringList("stoneworks-pipeline.stages")) {
+            Material material = Material.matchMaterial(name);
+            if (material == null || !material.isItem()) {
+                InfinityExpansion.log(Level.WARNING, "Invalid stoneworks pipeline stage '" + name + "', skipping it!");
+            }
+            else if (stages.size() == STAGE_SLOTS.length) {
+                InfinityExpansion.log(Level.WARNING, "Stoneworks pipeline has more than " + (STAGE_SLOTS.length - 1) + " stages, ignoring the rest!");
+                break;
+            }
+            else {
+                stages.add(material);
+            }
+        }
+        return stages.toArray(new Material[0]);
+    }
+
+    @Nonnull
+    private static String[] bufferKeys() {
+        String[] keys = new String[STAGES.length];
+        for (int i = 0 ; i < keys.length ; i++) {
+            keys[i] = "buffer_" + i;
+        }
+        return keys;
+    }
+
+    /**
+     * The status item of every stage for every buffered count
+     */
+    @Nonnull
+    private static ItemStack[][] stageItems() {
+        ItemStack[][] items = new ItemStack[STAGES.length][BUFFER_SIZE + 1];
+        for (int i = 0 ; i < STAGES.length ; i++) {
+            for (int count = 0 ; count <= BUFFER_SIZE ; count++) {
+                items[i][count] = new CustomItemStack(STAGES[i],
+                        "&7Stage " + (i + 1) + "/" + STAGES.length,
+                        "&7Buffered: &e" + count
+                );
+            }
+        }
+        return items;
+    }
+
+    @Override
+    protected void setup(@Nonnull BlockMenuPreset blockMenuPreset) {
+        blockMenuPreset.drawBackground(BACKGROUND);
+        blockMenuPreset.drawBackground(STAGE_SLOTS);
+        blockMenuPreset.drawBackground(OUTPUT_BORDER, OUT_BORDER);
+        blockMenuPreset.addItem(STATUS_SLOT, PROCESSING, ChestMenuUtils.getEmptyClickHandler());
+    }
+
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.pipelines.remove(menu.getLocation());
+        BlockDataCache.remove(menu.getLocation());
+    }
+
+    @Override
+    protected boolean work(Block b, BlockMenu inv) {
+        Location l = b.getLocation();
+        Pipeline pipeline = this.pipelines.computeIfAbsent(l, Pipeline::load);
+        int[] buffer = pipeline.buffer;
+        int last = STAGES.length - 1;
+        boolean moved = false;
+
+        // push finished items out first to make room in the buffer
+        if (buffer[last] > 0) {
+            int amount = Math.min(buffer[last], STAGES[last].getMaxStackSize());
+            ItemStack remaining = inv.pushItem(new ItemStack(STAGES[last], amount), OUTPUT_SLOTS);
+            int pushed = remaining == null ? amount : amount - remaining.getAmount();
+            buffer[last] -= pushed;
+            moved = pushed > 0;
+        }
+
+        // one pass from the last stage back, each stage takes up to a batch from the one before
+        for (int i = last ; i > 0 ; i--) {
+            int amount = Math.min(BATCH_SIZE, Math.min(buffer[i - 1], BUFFER_SIZE - buffer[i]));
+            if (amount > 0) {
+                buffer[i - 1] -= amount;
+                buffer[i] += amount;
+                moved = true;
+            }
+        }
+
+        if (buffer[0] < BUFFER_SIZE) {
+            buffer[0] = Math.min(BUFFER_SIZE, buffer[0] + BATCH_SIZE);
+            moved = true;
+        }
+
+        for (int i = 0 ; i < STAGES.length ; i++) {
+            BlockDataCache.setInt(l, BUFFER_KEYS[i], buffer[i]);
+        }
+
+        if (inv.hasViewer()) {
+            inv.replaceExistingItem(STATUS_SLOT, PROCESSING);
+            for (int i = 0 ; i < STAGES.length ; i++) {
+                if (pipeline.drawn[i] != buffer[i]) {
+                    pipeline.drawn[i] = buffer[i];
+                    inv.replaceExistingItem(STAGE_SLOTS[i], STAGE_ITEMS[i][buffer[i]]);
+                }
+            }
+        }
+        else {
+            // redraw everything once someone opens the menu again
+            Arrays.fill(pipeline.drawn, -1);
+        }
+
+        // a full factory with a full output takes no energy
+        return moved;
+    }
+
+    @Nonnull
+    @Override
+    public List<ItemStack> getDisplayRecipes() {
+        List<ItemStack> items = new ArrayList<>();
+        for (int i = 1 ; i < STAGES.length ; i++) {
+            items.add(new ItemStack(STAGES[i - 1]));
+            items.add(new ItemStack(STAGES[i]));
+        }
+        return items;
+    }
+
+    @Override
+    protected int[] getInputSlots(DirtyChestMenu menu, ItemStack item) {
+        return new int[0];
+    }
+
+    @Override
+    protected int[] getInputSlots() {
+        return new int[0];
+    }
+
+    @Override
+    protected int[] getOutputSlots() {
+        return OUTPUT_SLOTS;
+    }
+
+    @Override
+    protected int getStatusSlot() {
+        return STATUS_SLOT;
+    }
+
+    private static final class Pipeline {
+
+        private final int[] buffer = new int[STAGES.length];
+        private final int[] drawn = new int[STAGES.length];
+
+        @Nonnull
+        private static Pipeline load(Location l) {
+            Pipeline pipeline = new Pipeline();
+            for (int i = 0 ; i < STAGES.length ; i++) {
+                pipeline.buffer[i] = Math.max(0, Math.min(BUFFER_SIZE, BlockDataCache.getInt(l, BUFFER_KEYS[i], 0)));
+            }
+            Arrays.fill(pipeline.drawn, -1);
+            return pipeline;
+        }
+
+    }
+
+}
@@ -1,28 +1,53 @@
 package io.github.mooy1.infinityexpansion.items.machines;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javax.annotation.Nonnull;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
+import io.github.mooy1.infinitylib.common.Scheduler;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.EnergyNetComponent;
+import io.github.thebusybiscuit.slimefun4.core.handlers.BlockBreakHandler;
+import io.github.thebusybiscuit.slimefun4.core.handlers.BlockPlaceHandler;
 import io.github.thebusybiscuit.slimefun4.core.networks.energy.EnergyNetComponentType;
 import me.mrCookieSlime.Slimefun.Objects.handlers.BlockTicker;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
 
 /**
  * A block that becomes bedrock when powered, for decoration of course
  *
+ * Energy is used on 7 of 8 ticks like before, but paid for two ticks at a time so the charge is only
+ * checked on 4 of them. The powered state uses hysteresis: it turns on with a full buffer and only
+ * turns off once the ticks due can't be paid. Block changes from all bedrock blocks are applied
+ * together once per tick without physics. The powered state is saved in block data.
+ *
  * @author Mooy1
  */
 public final class PoweredBedrock extends SlimefunItem implements EnergyNetComponent {
 
+    private static final String POWERED = "powered";
+
+    private static final Map<Location, Material> PENDING = new ConcurrentHashMap<>();
+    private static final AtomicBoolean FLUSH_SCHEDULED = new AtomicBoolean();
+
+    private final Map<Location, Boolean> powered = new ConcurrentHashMap<>();
     private final int energy;
 
     public PoweredBedrock(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int energy) {
@@ -38,24 +63,95 @@ public final class PoweredBedrock extends SlimefunItem implements EnergyNetCompo
             @SuppressWarnings("deprecation")
             @Override
             public void tick(Block b, SlimefunItem item, me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config data) {
-                if (InfinityExpansion.slimefunTickCount() % 8 == 0) {
+                int ticks = ticksDue(InfinityExpansion.slimefunTickCount());
+                if (ticks == 0) {
                     return;
                 }
                 Location l = b.getLocation();
-                if (getCharge(l) < energy) {
-                    if (b.getType() != Material.NETHERITE_BLOCK) {
-                        b.setType(Material.NETHERITE_BLOCK);
-                        return;
-                    }
-                }
-                else if (b.getType() != Material.BEDROCK) {
-                    b.setType(Material.BEDROCK);
-                }
-                removeCharge(l, energy);
+                long start = EnergyProfiler.start();
+                long allocated = AllocationProfiler.start();
+                update(l, ticks);
+                AllocationProfiler.stop(allocated, PoweredBedrock.this);
+                EnergyProfiler.stop(start, PoweredBedrock.this, l);
+            }
+        }, new BlockPlaceHandler(false) {
+            @Override
+            public void onPlayerPlace(BlockPlaceEvent e) {
+                // a block at this location may have been removed without a player breaking it,
+                // the block data cache drops its own values on place
+                Location l = e.getBlock().getLocation();
+                PoweredBedrock.this.powered.remove(l);
+                PENDING.remove(l);
+            }
+        }, new BlockBreakHandler(false, false) {
+            @Override
+            public void onPlayerBreak(BlockBreakEvent e, ItemStack item, List<ItemStack> drops) {
+                clear(e.getBlock().getLocation());
             }
         });
     }
 
+    private void clear(Location l) {
+        this.powered.remove(l);
+        PENDING.remove(l);
+        BlockDataCache.remove(l);
+    }
+
+    /**
+     * The ticks to pay for on the given tick, the ticks 1 to 7 of every 8 are paid for in pairs and the 7th alone
+     */
+    private static int ticksDue(int tick) {
+        switch (tick % 8) {
+            case 2:
+            case 4:
+            case 6:
+                return 2;
+            case 7:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private void update(Location l, int ticks) {
+        Boolean state = this.powered.get(l);
+        boolean wasPowered = state == null ? BlockDataCache.getBoolean(l, POWERED) : state;
+        int charge = getCharge(l);
+        int cost = this.energy * ticks;
+        boolean isPowered = wasPowered ? charge >= cost : charge >= getCapacity();
+
+        if (isPowered) {
+            removeCharge(l, cost);
+        }
+
+        if (state == null || isPowered != wasPowered) {
+            this.powered.put(l, isPowered);
+            BlockDataCache.setBoolean(l, POWERED, isPowered);
+            queue(l, isPowered ? Material.BEDROCK : Material.NETHERITE_BLOCK);
+        }
+    }
+
+    private void queue(Location l, Material material) {
+        PENDING.put(l, material);
+        if (FLUSH_SCHEDULED.compareAndSet(false, true)) {
+            Scheduler.run(PoweredBedrock::flush);
+        }
+    }
+
+    private static void flush() {
+        FLUSH_SCHEDULED.set(false);
+        for (Location l : PENDING.keySet()) {
+            Material material = PENDING.remove(l);
+            if (material == null) {
+                continue;
+            }
+            Block b = l.getBlock();
+            if (b.getType() != material && BlockStorage.check(b) instanceof PoweredBedrock) {
+                b.setType(material, false);
+            }
+        }
+    }
+
     @Nonnull
     @Override
     public EnergyNetComponentType getEnergyComponentType() {
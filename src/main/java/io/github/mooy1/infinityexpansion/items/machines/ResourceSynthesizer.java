@@ -1,18 +1,24 @@
 package io.github.mooy1.infinityexpansion.items.machines;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-import lombok.Setter;
+import lombok.AllArgsConstructor;
 
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
 import io.github.mooy1.infinitylib.common.StackUtils;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
@@ -24,9 +30,12 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 /**
  * Creates special resources from the combination of singularities
  *
+ * Recipes are indexed by the unordered pair of their input ids, and each machine remembers
+ * its last match so that unchanged inputs don't need to be looked up again.
+ *
  * @author Mooy1
  */
-public final class ResourceSynthesizer extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class ResourceSynthesizer extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final int[] OUTPUT_SLOTS = {
             40
@@ -35,14 +44,68 @@ public final class ResourceSynthesizer extends AbstractMachineBlock implements R
             10, 16
     };
     private static final int STATUS_SLOT = 13;
+    private static final ItemStack SYNTHESIZED_ITEM = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aResource Synthesized!");
+    /**
+     * Read by ticking machines while it may still be written to, the lock in intern only keeps the numbers unique
+     */
+    private static final Map<String, Integer> INTERNED_IDS = new ConcurrentHashMap<>();
 
-    @Setter
-    private SlimefunItemStack[] recipes;
+    private final Map<Long, SlimefunItemStack> index = new HashMap<>();
+    private final Map<Location, Match> lastMatches = new ConcurrentHashMap<>();
+    private SlimefunItemStack[] recipes = new SlimefunItemStack[0];
 
     public ResourceSynthesizer(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe) {
         super(category, item, recipeType, recipe);
     }
 
+    /**
+     * Sets the recipes as triples of input, input, output and builds the lookup index
+     */
+    @Nonnull
+    public ResourceSynthesizer recipes(SlimefunItemStack... recipes) {
+        this.recipes = recipes;
+        this.index.clear();
+        for (int i = 0 ; i < recipes.length ; i += 3) {
+            this.index.put(key(intern(recipes[i].getItemId()), intern(recipes[i + 1].getItemId())), recipes[i + 2]);
+        }
+        return this;
+    }
+
+    private static int intern(String id) {
+        synchronized (INTERNED_IDS) {
+            return INTERNED_IDS.computeIfAbsent(id, k -> INTERNED_IDS.size());
+        }
+    }
+
+    /**
+     * Packs both interned ids into a long with the smaller one first so that the order of inputs doesn't matter
+     */
+    private static long key(int id1, int id2) {
+        return id1 < id2 ? ((long) id1 << 32) | id2 : ((long) id2 << 32) | id1;
+    }
+
+    /**
+     * Finds the output for 2 slimefun ids in either order
+     */
+    @Nullable
+    SlimefunItemStack getOutput(String id1, String id2) {
+        Integer interned1 = INTERNED_IDS.get(id1);
+        if (interned1 == null) {
+            return null;
+        }
+        Integer interned2 = INTERNED_IDS.get(id2);
+        if (interned2 == null) {
+            return null;
+        }
+        return this.index.get(key(interned1, interned2));
+    }
+
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.lastMatches.remove(menu.getLocation());
+    }
+
     @Override
     protected int getStatusSlot() {
         return STATUS_SLOT;
@@ -97,7 +160,7 @@ public final class ResourceSynthesizer extends AbstractMachineBlock implements R
     }
 
     @Override
-    protected boolean process(@Nonnull Block b, @Nonnull BlockMenu inv) {
+    protected boolean work(@Nonnull Block b, @Nonnull BlockMenu inv) {
 
         ItemStack input1 = inv.getItemInSlot(INPUT_SLOTS[0]);
         ItemStack input2 = inv.getItemInSlot(INPUT_SLOTS[1]);
@@ -111,23 +174,29 @@ public final class ResourceSynthesizer extends AbstractMachineBlock implements R
 
         }
 
-        String id1 = StackUtils.getId(input1);
+        ItemStack recipe;
+        Match match = this.lastMatches.get(b.getLocation());
 
-        if (id1 == null) {
-            return false;
+        if (match != null && match.input1.isSimilar(input1) && match.input2.isSimilar(input2)) {
+            recipe = match.output;
         }
+        else {
+            String id1 = StackUtils.getId(input1);
 
-        String id2 = StackUtils.getId(input2);
+            if (id1 == null) {
+                return false;
+            }
 
-        if (id2 == null) {
-            return false;
-        }
+            String id2 = StackUtils.getId(input2);
 
-        ItemStack recipe = null;
+            if (id2 == null) {
+                return false;
+            }
 
-        for (int i = 0 ; i < this.recipes.length ; i += 3) {
-            if ((id1.equals(this.recipes[i].getItemId()) && id2.equals(this.recipes[i + 1].getItemId()) || (id2.equals(this.recipes[i].getItemId()) && id1.equals(this.recipes[i + 1].getItemId())))) {
-                recipe = this.recipes[i + 2];
+            recipe = getOutput(id1, id2);
+
+            if (recipe != null) {
+                this.lastMatches.put(b.getLocation(), new Match(input1.clone(), input2.clone(), recipe));
             }
         }
 
@@ -149,7 +218,7 @@ public final class ResourceSynthesizer extends AbstractMachineBlock implements R
             inv.consumeItem(INPUT_SLOTS[1], 1);
 
             if (inv.hasViewer()) {
-                inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aResource Synthesized!"));
+                inv.replaceExistingItem(STATUS_SLOT, SYNTHESIZED_ITEM);
             }
             return true;
 
@@ -164,4 +233,13 @@ public final class ResourceSynthesizer extends AbstractMachineBlock implements R
         }
     }
 
+    @AllArgsConstructor
+    private static final class Match {
+
+        private final ItemStack input1;
+        private final ItemStack input2;
+        private final SlimefunItemStack output;
+
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,18 +15,21 @@ import lombok.Setter;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinityexpansion.utils.Util;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.storage.StorageCache;
+import io.github.mooy1.infinityexpansion.items.storage.StorageUnit;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
 import io.github.mooy1.infinitylib.common.StackUtils;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.RecipeDisplayItem;
-import io.github.thebusybiscuit.slimefun4.libraries.dough.collections.Pair;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
 import me.mrCookieSlime.Slimefun.api.BlockStorage;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
@@ -34,12 +38,20 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 /**
  * Constructs singularities form many items
  *
+ * Progress is kept in memory per machine and keyed by the singularity's slimefun id,
+ * it is only written to block storage when it changes.
+ *
+ * Besides the input slot, items are taken in bulk directly from adjacent storage units,
+ * each tick's worth of energy pays for as many items as the speed wherever they come from.
+ * Idle constructors skip their ticks until their menu changes, or look for a storage unit to start from.
+ *
  * @author Mooy1
  */
-public final class SingularityConstructor extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class SingularityConstructor extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final List<Recipe> RECIPE_LIST = new ArrayList<>();
-    private static final Map<String, Pair<Integer, Recipe>> RECIPE_MAP = new HashMap<>();
+    private static final Map<String, Recipe> RECIPE_MAP = new HashMap<>();
+    private static final Map<String, Recipe> OUTPUT_MAP = new HashMap<>();
     public static final RecipeType TYPE = new RecipeType(InfinityExpansion.createKey("singularity_constructor"),
             Machines.SINGULARITY_CONSTRUCTOR, (stacks, itemStack) -> {
         int amt = 0;
@@ -51,13 +63,33 @@ public final class SingularityConstructor extends AbstractMachineBlock implement
         String id = StackUtils.getIdOrType(stacks[0]);
         Recipe recipe = new Recipe((SlimefunItemStack) itemStack, stacks[0], id, amt);
         RECIPE_LIST.add(recipe);
-        RECIPE_MAP.put(id, new Pair<>(RECIPE_LIST.size() - 1, recipe));
+        RECIPE_MAP.put(id, recipe);
+        OUTPUT_MAP.put(recipe.output.getItemId(), recipe);
     });
 
     private static final String PROGRESS = "progress";
+    private static final String SINGULARITY = "singularity";
+    private static final String LEGACY_PROGRESS_ID = "progressid";
     private static final int STATUS_SLOT = 13;
     private static final int[] INPUT_SLOT = {10};
     private static final int[] OUTPUT_SLOT = {16};
+    private static final BlockFace[] ADJACENT = {
+            BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST
+    };
+    /**
+     * Items that can be taken from an adjacent storage unit per tick, per point of speed, if the charge pays for them
+     */
+    private static final int ABSORB_PER_SPEED = 64;
+    /**
+     * How often idle constructors look for a storage unit to start from
+     */
+    private static final int IDLE_SCAN_INTERVAL = 8;
+    private static final ItemStack INVALID_INPUT = new CustomItemStack(
+            Material.RED_STAINED_GLASS_PANE,
+            "&cInput a valid material to start"
+    );
+
+    private final Map<Location, State> states = new ConcurrentHashMap<>();
 
     @Setter
     private int speed;
@@ -70,102 +102,105 @@ public final class SingularityConstructor extends AbstractMachineBlock implement
     protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
         super.onBreak(e, menu);
         Location l = menu.getLocation();
-        int progress = Util.getIntData(PROGRESS, l);
-        Integer progressID = getProgressID(l);
-
-        if (progress > 0 && progressID != null) {
+        State state = this.states.remove(l);
 
-            Recipe triplet = RECIPE_LIST.get(progressID);
+        if (state == null) {
+            state = load(l);
+        }
 
-            if (triplet != null) {
-                ItemStack drop = new CustomItemStack(triplet.input, 64);
+        if (state.progress > 0 && state.recipe != null) {
+            ItemStack drop = new CustomItemStack(state.recipe.input, 64);
 
-                int stacks = progress / 64;
+            int stacks = state.progress / 64;
 
-                if (stacks > 0) {
-                    for (int i = 0 ; i < stacks ; i++) {
-                        e.getBlock().getWorld().dropItemNaturally(l, drop);
-                    }
+            if (stacks > 0) {
+                for (int i = 0 ; i < stacks ; i++) {
+                    e.getBlock().getWorld().dropItemNaturally(l, drop);
                 }
+            }
 
-                int remainder = progress % 64;
+            int remainder = state.progress % 64;
 
-                if (remainder > 0) {
-                    drop.setAmount(remainder);
-                    e.getBlock().getWorld().dropItemNaturally(l, drop);
-                }
+            if (remainder > 0) {
+                drop.setAmount(remainder);
+                e.getBlock().getWorld().dropItemNaturally(l, drop);
             }
         }
 
-        setProgressID(l, null);
-        setProgress(l, 0);
+        BlockStorage.addBlockInfo(l, SINGULARITY, null);
+        BlockStorage.addBlockInfo(l, PROGRESS, "0");
+        BlockDataCache.remove(l);
     }
 
     @Override
-    protected boolean process(@Nonnull Block b, @Nonnull BlockMenu menu) {
-        ItemStack input = menu.getItemInSlot(INPUT_SLOT[0]);
-        String inputID;
-        if (input == null) {
-            inputID = null;
-        }
-        else {
-            inputID = StackUtils.getIdOrType(input);
+    protected boolean work(@Nonnull Block b, @Nonnull BlockMenu menu) {
+        Location l = b.getLocation();
+        boolean scan = InfinityExpansion.slimefunTickCount() % IDLE_SCAN_INTERVAL == 0;
+        if (!scan) {
+            State idle = this.states.get(l);
+            if (idle != null && idle.unchanged(menu)) {
+                return false;
+            }
         }
 
-        // load data
-        Integer progressID = getProgressID(b.getLocation());
-        int progress = Util.getIntData(PROGRESS, b.getLocation());
-
-        Recipe triplet;
-        boolean takeCharge = false;
-
-        if (progressID == null || progress == 0) {
-            // not started
-            if (inputID != null) {
-                Pair<Integer, Recipe> pair = RECIPE_MAP.get(inputID);
-                if (pair != null) {
-                    progress = Math.min(this.speed, input.getAmount());
-                    input.setAmount(input.getAmount() - progress);
-                    progressID = pair.getFirstValue();
-                    triplet = pair.getSecondValue();
-                    takeCharge = true;
-                }
-                else {
-                    // invalid input
-                    triplet = null;
+        State state = this.states.computeIfAbsent(l, SingularityConstructor::load);
+        ItemStack input = menu.getItemInSlot(INPUT_SLOT[0]);
+        int speed = Math.max(1, this.speed);
+        int budget = budget(l, speed);
+        int items = 0;
+
+        if (state.recipe == null) {
+            if (input != null) {
+                // not started
+                Recipe recipe = RECIPE_MAP.get(StackUtils.getIdOrType(input));
+                if (recipe != null) {
+                    int amount = Math.min(speed, input.getAmount());
+                    input.setAmount(input.getAmount() - amount);
+                    state.start(recipe, amount);
+                    items = amount;
                 }
             }
-            else {
-                // still haven't started
-                triplet = null;
+            else if (scan) {
+                // try to start from a storage unit
+                items = absorb(b, state, budget);
+            }
+
+            if (state.recipe == null) {
+                // idle
+                if (menu.hasViewer()) {
+                    menu.replaceExistingItem(STATUS_SLOT, INVALID_INPUT);
+                }
+                state.idle(menu);
+                return false;
             }
         }
         else {
             // started
-            triplet = RECIPE_LIST.get(progressID);
-            if (inputID != null) {
-                int max = Math.min(triplet.amount - progress, Math.min(this.speed, input.getAmount()));
-                if (max > 0) {
-                    if (triplet.id.equals(inputID)) {
-                        progress += max;
-                        input.setAmount(input.getAmount() - max);
-                        takeCharge = true;
-                    } // invalid input
-                } // already done
+            if (input != null) {
+                int max = Math.min(state.recipe.amount - state.progress, Math.min(speed, input.getAmount()));
+                if (max > 0 && state.recipe.id.equals(StackUtils.getIdOrType(input))) {
+                    input.setAmount(input.getAmount() - max);
+                    state.add(max);
+                    items = max;
+                }
+            }
+            if (state.progress < state.recipe.amount) {
+                items += absorb(b, state, budget - items);
             }
         }
+        charge(l, items, speed);
 
         // show status and output if done
-        if (triplet != null) {
-            if (progress >= triplet.amount && menu.fits(triplet.output, OUTPUT_SLOT)) {
-                menu.pushItem(triplet.output.clone(), OUTPUT_SLOT);
-                progress = 0;
-                progressID = null;
+        Recipe recipe = state.recipe;
+        if (recipe != null) {
+            if (state.progress >= recipe.amount && menu.fits(recipe.output, OUTPUT_SLOT)) {
+                menu.pushItem(recipe.output.clone(), OUTPUT_SLOT);
+                state.reset();
 
                 if (menu.hasViewer()) {
                     menu.replaceExistingItem(STATUS_SLOT, new CustomItemStack(
                             Material.LIME_STAINED_GLASS_PANE,
-                            "&aConstructing " + triplet.output.getDisplayName() + "...",
+                            "&aConstructing " + recipe.output.getDisplayName() + "...",
                             "&7Complete"
                     ));
                 }
@@ -173,20 +208,81 @@ public final class SingularityConstructor extends AbstractMachineBlock implement
             else if (menu.hasViewer()) {
                 menu.replaceExistingItem(STATUS_SLOT, new CustomItemStack(
                         Material.LIME_STAINED_GLASS_PANE,
-                        "&aConstructing " + triplet.output.getDisplayName() + "...",
-                        "&7" + progress + " / " + triplet.amount
+                        "&aConstructing " + recipe.output.getDisplayName() + "...",
+                        "&7" + state.progress + " / " + recipe.amount
                 ));
             }
         }
         else if (menu.hasViewer()) {
-            invalidInput(menu);
+            menu.replaceExistingItem(STATUS_SLOT, INVALID_INPUT);
         }
 
-        // save data
-        setProgressID(b.getLocation(), progressID);
-        setProgress(b.getLocation(), progress);
+        state.save(l);
+
+        return items > 0;
+    }
+
+    /**
+     * The items the charge pays for this tick, each tick of energy pays for as many items as the speed
+     */
+    private int budget(Location l, int speed) {
+        int max = speed * ABSORB_PER_SPEED;
+        if (this.energyPerTick <= 0) {
+            return max;
+        }
+        return (int) Math.min(max, (long) speed * (getCharge(l) / this.energyPerTick));
+    }
 
-        return takeCharge;
+    /**
+     * Takes the charge for the items beyond the first tick's worth, which is taken when processing returns true
+     */
+    private void charge(Location l, int items, int speed) {
+        int ticks = (items + speed - 1) / speed;
+        if (ticks > 1 && this.energyPerTick > 0) {
+            removeCharge(l, (ticks - 1) * this.energyPerTick);
+        }
+    }
+
+    /**
+     * Takes items straight from the counter of an adjacent storage unit, starting a recipe if there is none,
+     * returns the amount taken
+     */
+    private static int absorb(Block b, State state, int max) {
+        if (max <= 0) {
+            return 0;
+        }
+        for (BlockFace face : ADJACENT) {
+            Block relative = b.getRelative(face);
+            SlimefunItem item = BlockStorage.check(relative);
+            if (!(item instanceof StorageUnit)) {
+                continue;
+            }
+
+            StorageCache cache = ((StorageUnit) item).getCache(relative.getLocation());
+            if (cache == null) {
+                continue;
+            }
+
+            if (state.recipe == null) {
+                String id = cache.getStoredId();
+                Recipe recipe = id == null ? null : RECIPE_MAP.get(id);
+                if (recipe != null) {
+                    int amount = cache.extract(id, Math.min(max, recipe.amount));
+                    if (amount > 0) {
+                        state.start(recipe, amount);
+                        return amount;
+                    }
+                }
+            }
+            else {
+                int amount = cache.extract(state.recipe.id, Math.min(max, state.recipe.amount - state.progress));
+                if (amount > 0) {
+                    state.add(amount);
+                    return amount;
+                }
+            }
+        }
+        return 0;
     }
 
     @Override
@@ -225,43 +321,45 @@ public final class SingularityConstructor extends AbstractMachineBlock implement
 
     @Override
     public void onNewInstance(@Nonnull BlockMenu blockMenu, @Nonnull Block block) {
-        invalidInput(blockMenu);
-    }
-
-    private static void invalidInput(BlockMenu menu) {
-        menu.replaceExistingItem(STATUS_SLOT, new CustomItemStack(
-                Material.RED_STAINED_GLASS_PANE,
-                "&cInput a valid material to start"
-        ));
+        blockMenu.replaceExistingItem(STATUS_SLOT, INVALID_INPUT);
+        this.states.remove(block.getLocation());
     }
 
-    private static void setProgress(Location l, int progress) {
-        BlockStorage.addBlockInfo(l, "progress", String.valueOf(progress));
-    }
+    /**
+     * Loads the state of a machine, migrating the old format which stored an index into the recipe list
+     */
+    @Nonnull
+    private static State load(Location l) {
+        State state = new State();
+        state.progress = BlockDataCache.getInt(l, PROGRESS, 0);
 
-    private static void setProgressID(Location l, @Nullable Integer progressID) {
-        if (progressID == null) {
-            BlockStorage.addBlockInfo(l, "progressid", null);
+        String id = BlockDataCache.getString(l, SINGULARITY);
+        if (id != null) {
+            state.recipe = OUTPUT_MAP.get(id);
         }
         else {
-            BlockStorage.addBlockInfo(l, "progressid", String.valueOf(progressID));
+            String legacy = BlockStorage.getLocationInfo(l, LEGACY_PROGRESS_ID);
+            if (legacy != null) {
+                try {
+                    int index = Integer.parseInt(legacy);
+                    if (index >= 0 && index < RECIPE_LIST.size()) {
+                        state.recipe = RECIPE_LIST.get(index);
+                    }
+                }
+                catch (NumberFormatException ignored) { }
+                BlockStorage.addBlockInfo(l, LEGACY_PROGRESS_ID, null);
+                state.dirty = true;
+            }
         }
-    }
 
-    @Nullable
-    private static Integer getProgressID(Location l) {
-        String id = BlockStorage.getLocationInfo(l, "progressid");
-        if (id == null) {
-            return null;
-        }
-        else {
-            try {
-                return Integer.parseInt(id);
-            } catch (NumberFormatException e) {
-                setProgressID(l, null);
-                return null;
-            }
+        if (state.recipe == null && state.progress != 0) {
+            // the recipe was removed or the data is invalid
+            state.progress = 0;
+            state.dirty = true;
         }
+
+        state.save(l);
+        return state;
     }
 
     @Nonnull
@@ -287,4 +385,59 @@ public final class SingularityConstructor extends AbstractMachineBlock implement
 
     }
 
+    private static final class State {
+
+        @Nullable
+        private Recipe recipe;
+        private int progress;
+        private boolean dirty;
+        @Nullable
+        private BlockMenu idleMenu;
+        private int idleChanges;
+
+        private void start(Recipe recipe, int progress) {
+            this.recipe = recipe;
+            this.progress = progress;
+            this.dirty = true;
+        }
+
+        private void add(int amount) {
+            this.progress += amount;
+        }
+
+        /**
+         * Remembers the menu of an idle constructor, so it can skip ticks until the menu changes
+         */
+        private void idle(BlockMenu menu) {
+            this.idleMenu = menu;
+            this.idleChanges = menu.getUnsavedChanges();
+        }
+
+        /**
+         * Whether the constructor is idle and nothing was put in or someone views it since
+         */
+        private boolean unchanged(BlockMenu menu) {
+            return this.recipe == null && this.idleMenu == menu && !menu.hasViewer()
+                    && menu.getUnsavedChanges() == this.idleChanges;
+        }
+
+        private void reset() {
+            this.recipe = null;
+            this.progress = 0;
+            this.dirty = true;
+        }
+
+        /**
+         * The singularity and progress both go through the block data cache, so they are always flushed together
+         */
+        private void save(Location l) {
+            if (this.dirty) {
+                this.dirty = false;
+                BlockDataCache.setString(l, SINGULARITY, this.recipe == null ? null : this.recipe.output.getItemId());
+            }
+            BlockDataCache.setInt(l, PROGRESS, this.progress);
+        }
+
+    }
+
 }
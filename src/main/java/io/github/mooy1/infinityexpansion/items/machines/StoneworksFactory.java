@@ -1,20 +1,21 @@
 package io.github.mooy1.infinityexpansion.items.machines;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
-import lombok.AllArgsConstructor;
-
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
-import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
@@ -29,9 +30,12 @@ import me.mrCookieSlime.Slimefun.api.inventory.DirtyChestMenu;
 
 /**
  * Turns cobble into stuff
+ *
+ * The 3 choices of each factory are packed into a single byte (base 5) which is kept in memory,
+ * block storage is only read when the menu is created and written when a choice is clicked.
  */
 @ParametersAreNonnullByDefault
-public final class StoneworksFactory extends AbstractMachineBlock implements RecipeDisplayItem, NotHopperable {
+public final class StoneworksFactory extends AbstractProfiledMachine implements RecipeDisplayItem, NotHopperable {
 
     private static final int[] PROCESS_BORDER = { 0, 1, 2, 3, 4, 5, 18, 19, 20, 21, 22, 23 };
     private static final int[] OUT_BORDER = { 6, 7, 8, 17, 24, 25, 26 };
@@ -42,6 +46,8 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
     private static final ItemStack COBBLE_GEN = new CustomItemStack(Material.GRAY_CONCRETE, "&8Cobblegen");
     private static final ItemStack PROCESSING = new CustomItemStack(Material.LIME_STAINED_GLASS_PANE, "&aProcessing");
 
+    private final Map<Location, Byte> choices = new ConcurrentHashMap<>();
+
     public StoneworksFactory(ItemGroup category, SlimefunItemStack item, RecipeType recipeType, ItemStack[] recipe) {
         super(category, item, recipeType, recipe);
     }
@@ -58,20 +64,18 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
     public void onNewInstance(@Nonnull BlockMenu menu, @Nonnull Block b) {
         Location l = b.getLocation();
 
-        if (BlockStorage.getLocationInfo(l, "choice0") == null) {
-            setChoice(l, 0, Choice.NONE);
-            setChoice(l, 1, Choice.NONE);
-            setChoice(l, 2, Choice.NONE);
-        }
-
-        for (int i = 0 ; i < CHOICE_SLOTS.length ; i++) {
-            menu.replaceExistingItem(CHOICE_SLOTS[i], getChoice(l, i).item);
+        int packed = 0;
+        for (int i = CHOICE_SLOTS.length - 1 ; i >= 0 ; i--) {
+            Choice choice = loadChoice(l, i);
+            packed = packed * Choice.values.length + choice.ordinal();
+            menu.replaceExistingItem(CHOICE_SLOTS[i], choice.item);
         }
+        this.choices.put(l, (byte) packed);
 
         for (int i = 0 ; i < 3 ; i++) {
             int finalI = i;
             menu.addMenuClickHandler(CHOICE_SLOTS[i], (p, slot, item, action) -> {
-                int current = getChoice(b.getLocation(), finalI).ordinal();
+                int current = getChoice(l, finalI).ordinal();
                 Choice next = action.isRightClicked()
                         ? current > 0
                         ? Choice.values[current - 1]
@@ -86,7 +90,13 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
         }
     }
 
-    private static void process(int i, BlockMenu inv, Location l) {
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.choices.remove(menu.getLocation());
+    }
+
+    private static void process(int i, Choice c, BlockMenu inv) {
         int slot = PROCESS_SLOTS[i];
 
         ItemStack item = inv.getItemInSlot(slot);
@@ -95,7 +105,6 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
             return;
         }
 
-        Choice c = getChoice(l, i);
         int nextSlot = i < 2 ? PROCESS_SLOTS[i + 1] : OUTPUT_SLOTS[0];
 
         if (c == Choice.NONE) {
@@ -109,18 +118,14 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
             return;
         }
 
-        for (int check = 0; check < c.inputs.length; check++) {
-
-            if (item.getType() == c.inputs[check]) {
-
-                ItemStack output = new ItemStack(c.outputs[check]);
+        Material result = c.transforms.get(item.getType());
 
-                if (inv.fits(output, nextSlot)) {
-                    inv.consumeItem(slot, 1);
-                    inv.pushItem(output, nextSlot);
-                }
+        if (result != null) {
+            ItemStack output = new ItemStack(result);
 
-                break;
+            if (inv.fits(output, nextSlot)) {
+                inv.consumeItem(slot, 1);
+                inv.pushItem(output, nextSlot);
             }
         }
     }
@@ -154,33 +159,61 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
     }
 
     @Nonnull
-    private static Choice getChoice(Location l, int i) {
-        try {
-            return Choice.valueOf(BlockStorage.getLocationInfo(l, "choice" + i));
-        } catch (Exception e) {
-            setChoice(l, i, Choice.NONE);
-            return Choice.NONE;
+    private Choice getChoice(Location l, int i) {
+        Byte packed = this.choices.get(l);
+        return packed == null ? Choice.NONE : getChoice(packed, i);
+    }
+
+    @Nonnull
+    private static Choice getChoice(int packed, int i) {
+        for (int j = 0 ; j < i ; j++) {
+            packed /= Choice.values.length;
         }
+        return Choice.values[packed % Choice.values.length];
     }
 
-    private static void setChoice(Location l, int i, Choice o) {
+    private void setChoice(Location l, int i, Choice o) {
+        int packed = this.choices.getOrDefault(l, (byte) 0);
+        int unit = 1;
+        for (int j = 0 ; j < i ; j++) {
+            unit *= Choice.values.length;
+        }
+        packed += (o.ordinal() - getChoice(packed, i).ordinal()) * unit;
+        this.choices.put(l, (byte) packed);
         BlockStorage.addBlockInfo(l, "choice" + i, o.toString());
     }
 
+    @Nonnull
+    private static Choice loadChoice(Location l, int i) {
+        String value = BlockStorage.getLocationInfo(l, "choice" + i);
+        if (value != null) {
+            try {
+                return Choice.valueOf(value);
+            }
+            catch (IllegalArgumentException ignored) { }
+        }
+        BlockStorage.addBlockInfo(l, "choice" + i, Choice.NONE.toString());
+        return Choice.NONE;
+    }
+
     @Override
-    protected boolean process(Block b, BlockMenu inv) {
+    protected boolean work(Block b, BlockMenu inv) {
         if (inv.hasViewer()) {
             inv.replaceExistingItem(STATUS_SLOT, PROCESSING);
         }
-        int tick = InfinityExpansion.slimefunTickCount() % 4;
+        Byte packed = this.choices.get(b.getLocation());
 
-        if (tick == 3) {
-            inv.pushItem(new ItemStack(Material.COBBLESTONE), PROCESS_SLOTS[0]);
+        if (packed == null) {
+            return false;
         }
-        else {
-            process(tick, inv, b.getLocation());
+
+        // last stage first so that each stage has room for the one before it
+        for (int i = PROCESS_SLOTS.length - 1 ; i >= 0 ; i--) {
+            process(i, getChoice(packed, i), inv);
         }
 
+        inv.pushItem(new ItemStack(Material.COBBLESTONE), PROCESS_SLOTS[0]);
+
         return true;
     }
 
@@ -189,7 +222,6 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
         return STATUS_SLOT;
     }
 
-    @AllArgsConstructor
     private enum Choice {
         NONE(new CustomItemStack(Material.BARRIER, "&cNone", "", "&7 > Click to cycle"),
                 new Material[0],
@@ -215,8 +247,18 @@ public final class StoneworksFactory extends AbstractMachineBlock implements Rec
         private final ItemStack item;
         private final Material[] inputs;
         private final Material[] outputs;
+        private final Map<Material, Material> transforms = new EnumMap<>(Material.class);
 
         private static final Choice[] values = values();
+
+        Choice(ItemStack item, Material[] inputs, Material[] outputs) {
+            this.item = item;
+            this.inputs = inputs;
+            this.outputs = outputs;
+            for (int i = 0 ; i < inputs.length ; i++) {
+                this.transforms.put(inputs[i], outputs[i]);
+            }
+        }
     }
 
 }
@@ -2,23 +2,28 @@ package io.github.mooy1.infinityexpansion.items.machines;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.abstracts.IdleBackoff;
 import io.github.mooy1.infinityexpansion.items.materials.Materials;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.RecipeDisplayItem;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
-import me.mrCookieSlime.Slimefun.api.BlockStorage;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 
@@ -27,13 +32,21 @@ import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
  *
  * @author Mooy1
  */
-public final class VoidHarvester extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class VoidHarvester extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     public static final RecipeType TYPE = new RecipeType(InfinityExpansion.createKey("void_harvester"), Machines.VOID_HARVESTER);
 
     private static final int[] OUTPUT_SLOTS = { 13 };
     private static final int TIME = 1024;
-
+    private static final String PROGRESS = "progress";
+    private static final int NO_ROOM = -1;
+    /**
+     * Most ticks caught up at once, the same as the longest idle backoff
+     */
+    private static final int MAX_CATCH_UP = 64;
+
+    private final Map<Location, Progress> progress = new ConcurrentHashMap<>();
+    private final IdleBackoff idle = new IdleBackoff();
     private final int speed;
 
     public VoidHarvester(ItemGroup category, SlimefunItemStack item, RecipeType type, ItemStack[] recipe, int speed) {
@@ -42,10 +55,19 @@ public final class VoidHarvester extends AbstractMachineBlock implements RecipeD
     }
 
     @Override
-    protected boolean process(@Nonnull Block b, @Nonnull BlockMenu inv) {
-        int progress = Integer.parseInt(getProgress(b));
+    protected boolean work(@Nonnull Block b, @Nonnull BlockMenu inv) {
+        if (this.idle.sleeping(inv)) {
+            return false;
+        }
+
+        int tick = InfinityExpansion.slimefunTickCount();
+        Progress progress = getProgress(b, inv, tick);
 
-        if (progress >= TIME) { //reached full progress
+        // progress from elapsed ticks, so ticks skipped by lag or a backoff are caught up
+        int elapsed = Math.min(MAX_CATCH_UP, Math.max(1, tick - progress.lastTick));
+        progress.lastTick = tick;
+
+        if (progress.value >= TIME) { //reached full progress
 
             ItemStack output = Materials.VOID_BIT;
 
@@ -53,30 +75,60 @@ public final class VoidHarvester extends AbstractMachineBlock implements RecipeD
 
                 inv.pushItem(output.clone(), OUTPUT_SLOTS);
 
-                progress = this.speed;
+                progress.value = this.speed;
+                this.idle.active(b.getLocation());
 
             }
             else {
-                if (inv.hasViewer()) {
+                if (inv.hasViewer() && progress.shown != NO_ROOM) {
+                    progress.shown = NO_ROOM;
                     inv.replaceExistingItem(getStatusSlot(), NO_ROOM_ITEM);
                 }
+                this.idle.idle(inv);
                 return false;
             }
         }
         else {
-            progress += this.speed;
+            // never pay for steps past full progress
+            int needed = (TIME - progress.value + this.speed - 1) / this.speed;
+            progress.value = Math.min(TIME, progress.value + this.speed * steps(b.getLocation(), Math.min(elapsed, needed)));
+        }
+
+        if (progress.saved != progress.value) {
+            progress.saved = progress.value;
+            BlockDataCache.setInt(b.getLocation(), PROGRESS, progress.value);
         }
 
-        setProgress(b, progress);
         if (inv.hasViewer()) { //update status
-            inv.replaceExistingItem(getStatusSlot(), new CustomItemStack(Material.LIME_STAINED_GLASS_PANE,
-                    "&aHarvesting - " + progress * 100 / TIME + "%",
-                    "&7(" + progress + "/" + TIME + ")"
-            ));
+            int percent = progress.value * 100 / TIME;
+            if (progress.shown != percent) {
+                progress.shown = percent;
+                inv.replaceExistingItem(getStatusSlot(), new CustomItemStack(Material.LIME_STAINED_GLASS_PANE,
+                        "&aHarvesting - " + percent + "%",
+                        "&7(" + progress.value + "/" + TIME + ")"
+                ));
+            }
         }
         return true;
     }
 
+    /**
+     * The steps to take for the ticks elapsed since the last processed tick. The machine base pays for
+     * the current tick, the earlier ticks are paid for here and only caught up as far as the charge covers them.
+     */
+    private int steps(Location l, int elapsed) {
+        if (elapsed == 1 || this.energyPerTick <= 0) {
+            return 1;
+        }
+        // the current tick's energy is taken after this tick
+        int extra = Math.min(elapsed - 1, getCharge(l) / this.energyPerTick - 1);
+        if (extra <= 0) {
+            return 1;
+        }
+        removeCharge(l, extra * this.energyPerTick);
+        return 1 + extra;
+    }
+
     @Override
     protected int getStatusSlot() {
         return 4;
@@ -102,17 +154,26 @@ public final class VoidHarvester extends AbstractMachineBlock implements RecipeD
 
     @Override
     public void onNewInstance(@Nonnull BlockMenu menu, @Nonnull Block b) {
-        if (getProgress(b) == null) {
-            setProgress(b, 0);
-        }
+
     }
 
-    private static void setProgress(Block b, int progress) {
-        BlockStorage.addBlockInfo(b, "progress", String.valueOf(progress));
+    @Override
+    protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.idle.remove(menu.getLocation());
+        this.progress.remove(menu.getLocation());
+        BlockDataCache.remove(menu.getLocation());
     }
 
-    private static String getProgress(Block b) {
-        return BlockStorage.getLocationInfo(b.getLocation(), "progress");
+    @Nonnull
+    private Progress getProgress(Block b, BlockMenu menu, int tick) {
+        Progress progress = this.progress.get(b.getLocation());
+        if (progress == null || progress.menu != menu) {
+            // new or reloaded menu
+            progress = new Progress(menu, BlockDataCache.getInt(b.getLocation(), PROGRESS, 0), tick);
+            this.progress.put(b.getLocation(), progress);
+        }
+        return progress;
     }
 
     @Nonnull
@@ -132,5 +193,25 @@ public final class VoidHarvester extends AbstractMachineBlock implements RecipeD
         return "&7Harvests:";
     }
 
+    /**
+     * Progress of a harvester, saved through the block data cache
+     */
+    private static final class Progress {
+
+        private final BlockMenu menu;
+        private int value;
+        private int saved;
+        private int lastTick;
+        private int shown = Integer.MIN_VALUE;
+
+        private Progress(BlockMenu menu, int value, int tick) {
+            this.menu = menu;
+            this.value = value;
+            this.saved = value;
+            this.lastTick = tick - 1;
+        }
+
+    }
+
 }
 
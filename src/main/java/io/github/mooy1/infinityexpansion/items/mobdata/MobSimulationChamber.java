@@ -10,7 +10,9 @@ import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinityexpansion.utils.Util;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.mooy1.infinityexpansion.utils.EnergyProfiler;
 import io.github.mooy1.infinitylib.common.StackUtils;
 import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
 import io.github.mooy1.infinitylib.machines.MachineLore;
@@ -21,7 +23,6 @@ import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
 import io.github.thebusybiscuit.slimefun4.core.attributes.EnergyNetComponent;
 import io.github.thebusybiscuit.slimefun4.core.networks.energy.EnergyNetComponentType;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
-import me.mrCookieSlime.Slimefun.api.BlockStorage;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
 import me.mrCookieSlime.Slimefun.api.inventory.BlockMenuPreset;
 import me.mrCookieSlime.Slimefun.api.inventory.DirtyChestMenu;
@@ -53,8 +54,8 @@ public final class MobSimulationChamber extends TickingMenuBlock implements Ener
     @Override
     protected void onBreak(@Nonnull BlockBreakEvent e, @Nonnull BlockMenu menu) {
         super.onBreak(e, menu);
-        e.getPlayer().giveExp(Util.getIntData("xp", menu.getLocation()));
-        BlockStorage.addBlockInfo(menu.getLocation(), "xp", "0");
+        e.getPlayer().giveExp(BlockDataCache.getInt(menu.getLocation(), "xp", 0));
+        BlockDataCache.remove(menu.getLocation());
     }
 
     @Nonnull
@@ -110,16 +111,13 @@ public final class MobSimulationChamber extends TickingMenuBlock implements Ener
     @Override
     public void onNewInstance(@Nonnull BlockMenu menu, @Nonnull Block b) {
         Location l = b.getLocation();
-        if (BlockStorage.getLocationInfo(l, "xp") == null) {
-            BlockStorage.addBlockInfo(l, "xp", "O");
-        }
         menu.replaceExistingItem(XP_SLOT, makeXpItem(0));
         menu.addMenuClickHandler(XP_SLOT, (p, slot, item, action) -> {
-            int xp = Util.getIntData("xp", l);
+            int xp = BlockDataCache.getInt(l, "xp", 0);
             if (xp > 0) {
                 p.giveExp(xp);
                 p.playSound(l, Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1, 1);
-                BlockStorage.addBlockInfo(l, "xp", "O");
+                BlockDataCache.setInt(l, "xp", 0);
                 menu.replaceExistingItem(XP_SLOT, makeXpItem(0));
             }
             return false;
@@ -132,6 +130,14 @@ public final class MobSimulationChamber extends TickingMenuBlock implements Ener
 
     @Override
     protected void tick(@Nonnull Block b, @Nonnull BlockMenu inv) {
+        long start = EnergyProfiler.start();
+        long allocated = AllocationProfiler.start();
+        simulate(b, inv);
+        AllocationProfiler.stop(allocated, this);
+        EnergyProfiler.stop(start, this, b.getLocation());
+    }
+
+    private void simulate(@Nonnull Block b, @Nonnull BlockMenu inv) {
         ItemStack input = inv.getItemInSlot(CARD_SLOT);
 
         if (input == null) {
@@ -158,7 +164,7 @@ public final class MobSimulationChamber extends TickingMenuBlock implements Ener
 
         removeCharge(b.getLocation(), energy);
 
-        int xp = Util.getIntData("xp", b.getLocation());
+        int xp = BlockDataCache.getInt(b.getLocation(), "xp", 0);
 
         if (inv.hasViewer()) {
             inv.replaceExistingItem(STATUS_SLOT, new CustomItemStack(Material.LIME_STAINED_GLASS_PANE,
@@ -171,7 +177,7 @@ public final class MobSimulationChamber extends TickingMenuBlock implements Ener
             return;
         }
 
-        BlockStorage.addBlockInfo(b.getLocation(), "xp", String.valueOf(xp + card.tier.xp));
+        BlockDataCache.setInt(b.getLocation(), "xp", xp + card.tier.xp);
 
         ItemStack item = card.drops.getRandom();
         if (inv.fits(item, OUTPUT_SLOTS)) {
@@ -11,10 +11,12 @@ import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
-import io.github.mooy1.infinitylib.machines.AbstractMachineBlock;
+import io.github.mooy1.infinityexpansion.items.abstracts.AbstractProfiledMachine;
+import io.github.mooy1.infinityexpansion.items.abstracts.IdleBackoff;
 import io.github.thebusybiscuit.slimefun4.api.items.ItemGroup;
 import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
 import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
@@ -31,7 +33,7 @@ import me.mrCookieSlime.Slimefun.api.inventory.DirtyChestMenu;
  * @author Mooy1
  */
 @ParametersAreNonnullByDefault
-public final class Quarry extends AbstractMachineBlock implements RecipeDisplayItem {
+public final class Quarry extends AbstractProfiledMachine implements RecipeDisplayItem {
 
     private static final boolean ALLOW_NETHER_IN_OVERWORLD =
             InfinityExpansion.config().getBoolean("quarry-options.output-nether-materials-in-overworld");
@@ -53,6 +55,7 @@ public final class Quarry extends AbstractMachineBlock implements RecipeDisplayI
     private static final int OSCILLATOR_SLOT = 49;
     private static final int STATUS_SLOT = 4;
 
+    private final IdleBackoff idle = new IdleBackoff();
     private final int speed;
     private final int chance;
     private final Material[] outputs;
@@ -96,7 +99,17 @@ public final class Quarry extends AbstractMachineBlock implements RecipeDisplayI
     }
 
     @Override
-    protected boolean process(Block b, BlockMenu inv) {
+    protected void onBreak(BlockBreakEvent e, BlockMenu menu) {
+        super.onBreak(e, menu);
+        this.idle.remove(menu.getLocation());
+    }
+
+    @Override
+    protected boolean work(Block b, BlockMenu inv) {
+        if (this.idle.sleeping(inv)) {
+            return false;
+        }
+
         if (inv.hasViewer()) {
             inv.replaceExistingItem(STATUS_SLOT, MINING);
         }
@@ -128,7 +141,12 @@ public final class Quarry extends AbstractMachineBlock implements RecipeDisplayI
             outputItem = new ItemStack(Material.COBBLESTONE, this.speed);
         }
 
-        inv.pushItem(outputItem, OUTPUT_SLOTS);
+        if (inv.pushItem(outputItem, OUTPUT_SLOTS) == null) {
+            this.idle.active(b.getLocation());
+        }
+        else {
+            this.idle.idle(inv);
+        }
         return true;
     }
 
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import javax.annotation.Nullable;
+
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -18,6 +20,8 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.mooy1.infinitylib.common.StackUtils;
 import io.github.mooy1.infinitylib.machines.MachineLore;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.common.ChatColors;
 import io.github.thebusybiscuit.slimefun4.libraries.dough.items.CustomItemStack;
@@ -38,6 +42,9 @@ import static io.github.mooy1.infinityexpansion.items.storage.StorageUnit.STATUS
 /**
  * Represents a single storage unit with cached data
  *
+ * Every method which reads or changes the stored item or amount locks on the cache,
+ * as machines like the singularity constructor extract from it off the main thread.
+ *
  * @author Mooy1
  */
 public final class StorageCache {
@@ -71,6 +78,7 @@ public final class StorageCache {
     private ItemMeta meta;
     private boolean voidExcess;
     private int amount;
+    private String storedId;
 
     StorageCache(StorageUnit storageUnit, BlockMenu menu) {
         this.storageUnit = storageUnit;
@@ -113,7 +121,9 @@ public final class StorageCache {
 
         // void excess handler
         menu.addMenuClickHandler(STATUS_SLOT, (p, slot, item, action) -> {
-            this.voidExcess = !this.voidExcess;
+            synchronized (this) {
+                this.voidExcess = !this.voidExcess;
+            }
             BlockStorage.addBlockInfo(this.menu.getLocation(), VOID_EXCESS, this.voidExcess ? "true" : null);
             ItemMeta meta = item.getItemMeta();
             List<String> lore = meta.getLore();
@@ -125,37 +135,41 @@ public final class StorageCache {
 
         // interact handler
         menu.addMenuClickHandler(INTERACT_SLOT, (p, slot, item, action) -> {
-            if (this.amount == 1) {
-                if (action.isShiftClicked() && !action.isRightClicked()) {
-                    depositAll(p);
+            interact(p, action.isRightClicked(), action.isShiftClicked());
+            return false;
+        });
+
+        // load status slot
+        updateStatus();
+    }
+
+    private synchronized void interact(Player p, boolean right, boolean shift) {
+        if (this.amount == 1) {
+            if (shift && !right) {
+                depositAll(p);
+            }
+            else {
+                withdrawLast(p);
+            }
+        }
+        else if (!isEmpty()) {
+            if (right) {
+                if (shift) {
+                    withdraw(p, this.amount - 1);
                 }
                 else {
-                    withdrawLast(p);
+                    withdraw(p, Math.min(this.material.getMaxStackSize(), this.amount - 1));
                 }
             }
-            else if (!isEmpty()) {
-                if (action.isRightClicked()) {
-                    if (action.isShiftClicked()) {
-                        withdraw(p, this.amount - 1);
-                    }
-                    else {
-                        withdraw(p, Math.min(this.material.getMaxStackSize(), this.amount - 1));
-                    }
+            else {
+                if (shift) {
+                    depositAll(p);
                 }
                 else {
-                    if (action.isShiftClicked()) {
-                        depositAll(p);
-                    }
-                    else {
-                        withdraw(p, 1);
-                    }
+                    withdraw(p, 1);
                 }
             }
-            return false;
-        });
-
-        // load status slot
-        updateStatus();
+        }
     }
 
     private void setDisplayName(String name) {
@@ -230,7 +244,7 @@ public final class StorageCache {
         this.signDisplay[1] = "";
     }
 
-    void destroy(BlockBreakEvent e, List<ItemStack> drops) {
+    synchronized void destroy(BlockBreakEvent e, List<ItemStack> drops) {
 
         // add output slot
         ItemStack output = this.menu.getItemInSlot(OUTPUT_SLOT);
@@ -256,14 +270,13 @@ public final class StorageCache {
 
 
     @SuppressWarnings("deprecation")
-    void reloadData() {
+    synchronized void reloadData() {
         me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config config = BlockStorage.getLocationInfo(this.menu.getLocation());
-        String amt = config.getString(STORED_AMOUNT);
-        this.amount = amt == null ? 0 : Integer.parseInt(amt);
+        this.amount = BlockDataCache.getInt(this.menu.getLocation(), STORED_AMOUNT, 0);
         this.voidExcess = "true".equals(config.getString(VOID_EXCESS));
     }
 
-    void load(ItemStack stored, ItemMeta copy) {
+    synchronized void load(ItemStack stored, ItemMeta copy) {
         this.menu.replaceExistingItem(DISPLAY_SLOT, stored);
 
         // remove the display key from copy
@@ -278,12 +291,13 @@ public final class StorageCache {
         }
         setDisplayName(ItemUtils.getItemName(stored));
         this.material = stored.getType();
+        this.storedId = null;
     }
 
     /**
      * Modifikasi utama: tambahkan pengecekan isBlocked di awal sehingga hopper/otomasi tidak bisa memasukkan storage items.
      */
-    void input() {
+    synchronized void input() {
         ItemStack input = this.menu.getItemInSlot(INPUT_SLOT);
         if (input == null) {
             return;
@@ -349,13 +363,13 @@ public final class StorageCache {
         }
     }
 
-    void tick(Block block) {
+    synchronized void tick(Block block) {
         // input output
         input();
         output();
 
         // store amount
-        BlockStorage.addBlockInfo(this.menu.getLocation(), STORED_AMOUNT, String.valueOf(this.amount));
+        BlockDataCache.setInt(this.menu.getLocation(), STORED_AMOUNT, this.amount);
 
         // status
         if (this.menu.hasViewer()) {
@@ -409,6 +423,7 @@ public final class StorageCache {
         this.meta = input.hasItemMeta() ? input.getItemMeta() : null;
         setDisplayName(ItemUtils.getItemName(input));
         this.material = input.getType();
+        this.storedId = null;
 
         // add the display key to the display input and set amount 1
         ItemMeta meta = input.getItemMeta();
@@ -423,6 +438,7 @@ public final class StorageCache {
         setEmptyDisplayName();
         this.meta = null;
         this.material = null;
+        this.storedId = null;
         this.menu.replaceExistingItem(DISPLAY_SLOT, EMPTY_ITEM);
         this.amount = 0;
     }
@@ -431,7 +447,7 @@ public final class StorageCache {
      * matches: cek apakah item cocok dengan stored item.
      * Perubahan: segera tolak jika item termasuk blocked (lebih aman daripada cek nama kelas).
      */
-    boolean matches(ItemStack item) {
+    synchronized boolean matches(ItemStack item) {
         // Prevent storing other StorageUnit items inside this storage
         // Use StorageUnit.isBlocked to determine blocked Slimefun IDs or embedded items
         if (io.github.mooy1.infinityexpansion.items.storage.StorageUnit.isBlocked(item)) {
@@ -454,11 +470,43 @@ public final class StorageCache {
         return item;
     }
 
-    boolean isEmpty() {
+    synchronized boolean isEmpty() {
         return this.amount == 0;
     }
 
-    private void withdraw(Player p, int withdraw) {
+    /**
+     * The slimefun id or material name of the stored item, empty if it is a vanilla item with custom meta
+     */
+    @Nullable
+    public synchronized String getStoredId() {
+        if (this.storedId == null && this.material != null) {
+            if (this.meta == null) {
+                this.storedId = this.material.name();
+            }
+            else {
+                String id = StackUtils.getId(createItem(1));
+                this.storedId = id == null ? "" : id;
+            }
+        }
+        return this.storedId;
+    }
+
+    /**
+     * Removes up to max items directly from the stored amount if the stored item has the given id.
+     * Like the output slot, 1 item is always left so that the stored item stays set.
+     *
+     * @return the amount removed
+     */
+    public synchronized int extract(String id, int max) {
+        if (this.amount <= 1 || max <= 0 || !id.equals(getStoredId())) {
+            return 0;
+        }
+        int extracted = Math.min(max, this.amount - 1);
+        this.amount -= extracted;
+        return extracted;
+    }
+
+    private synchronized void withdraw(Player p, int withdraw) {
         if (this.material.getMaxStackSize() == 64) {
             ItemStack remaining = p.getInventory().addItem(createItem(withdraw)).get(0);
             if (remaining != null) {
@@ -491,7 +539,7 @@ public final class StorageCache {
         }
     }
 
-    private void withdrawLast(Player p) {
+    private synchronized void withdrawLast(Player p) {
         if (p.getInventory().addItem(createItem(1)).get(0) == null) {
             setEmpty();
         }
@@ -505,7 +553,7 @@ public final class StorageCache {
         depositAll(itemStacks, false);
     }
 
-    public void depositAll(ItemStack[] itemStacks, boolean observeVoiding) {
+    public synchronized void depositAll(ItemStack[] itemStacks, boolean observeVoiding) {
         if (this.amount < this.storageUnit.max) {
             for (ItemStack item : itemStacks) {
                 if (item != null && matches(item)) {
@@ -536,14 +584,14 @@ public final class StorageCache {
     /**
      * Set stored amount (primitive).
      */
-    public void setAmount(int amount) {
+    public synchronized void setAmount(int amount) {
         this.amount = amount;
     }
 
     /**
      * Set stored amount (Integer overload) — accepts null (treated as 0).
      */
-    public void setAmount(Integer amount) {
+    public synchronized void setAmount(Integer amount) {
         this.amount = amount == null ? 0 : amount.intValue();
     }
 
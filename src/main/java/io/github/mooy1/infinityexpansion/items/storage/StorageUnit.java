@@ -2,7 +2,6 @@ package io.github.mooy1.infinityexpansion.items.storage;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -10,6 +9,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -30,6 +30,8 @@ import org.bukkit.persistence.PersistentDataType;
 
 import io.github.mooy1.infinityexpansion.InfinityExpansion;
 import io.github.mooy1.infinityexpansion.categories.Groups;
+import io.github.mooy1.infinityexpansion.utils.AllocationProfiler;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
 import io.github.mooy1.infinitylib.common.PersistentType;
 import io.github.mooy1.infinitylib.common.Scheduler;
 import io.github.mooy1.infinitylib.machines.MenuBlock;
@@ -88,7 +90,7 @@ public final class StorageUnit extends MenuBlock implements DistinctiveItem {
     );
 
     /* Instance constants */
-    private final Map<Location, StorageCache> caches = new HashMap<>();
+    private final Map<Location, StorageCache> caches = new ConcurrentHashMap<>();
     final int max;
 
     /**
@@ -125,7 +127,9 @@ public final class StorageUnit extends MenuBlock implements DistinctiveItem {
             public void tick(Block b, SlimefunItem item, Config data) {
                 StorageCache cache = StorageUnit.this.caches.get(b.getLocation());
                 if (cache != null) {
+                    long start = AllocationProfiler.start();
                     cache.tick(b);
+                    AllocationProfiler.stop(start, StorageUnit.this);
                 }
             }
 
@@ -135,6 +139,7 @@ public final class StorageUnit extends MenuBlock implements DistinctiveItem {
             public void onPlayerBreak(BlockBreakEvent e, ItemStack item, List<ItemStack> drops) {
                 BlockMenu menu = BlockStorage.getInventory(e.getBlock());
                 StorageCache cache = StorageUnit.this.caches.remove(menu.getLocation());
+                BlockDataCache.remove(menu.getLocation());
                 if (cache != null && !cache.isEmpty()) {
                     cache.destroy(e, drops);
                 }
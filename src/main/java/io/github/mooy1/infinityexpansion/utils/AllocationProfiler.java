@@ -0,0 +1,146 @@
+package io.github.mooy1.infinityexpansion.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+import lombok.experimental.UtilityClass;
+
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+
+/**
+ * Records the bytes allocated by the tickers of this addon, per item id.
+ *
+ * Usage: {@code long start = AllocationProfiler.start(); ... AllocationProfiler.stop(start, this);}
+ * When disabled, or when the jvm can't measure thread allocations, {@link #start()} returns -1
+ * and {@link #stop} returns immediately.
+ */
+@UtilityClass
+public final class AllocationProfiler {
+
+    private static final Map<String, Entry> ITEMS = new ConcurrentHashMap<>();
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private static volatile boolean enabled;
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AllocationProfiler.enabled = enabled && THREADS != null;
+    }
+
+    public static long start() {
+        return enabled ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public static void stop(long start, @Nonnull SlimefunItem item) {
+        if (start == -1) {
+            return;
+        }
+
+        long bytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - start;
+        ITEMS.computeIfAbsent(item.getId(), Entry::new).record(bytes);
+    }
+
+    public static void reset() {
+        ITEMS.clear();
+    }
+
+    @Nonnull
+    public static List<Entry> top(int amount) {
+        List<Entry> entries = new ArrayList<>(ITEMS.values());
+        entries.sort(Comparator.comparingLong(Entry::totalBytes).reversed());
+        return entries.size() > amount ? entries.subList(0, amount) : entries;
+    }
+
+    /**
+     * Appends a row per item id to the csv file, writing the header first if the file is new,
+     * so that exports from several sessions can be compared over time.
+     */
+    public static int export(@Nonnull File file) throws IOException {
+        boolean header = !file.exists() || file.length() == 0;
+        long time = System.currentTimeMillis();
+        int rows = 0;
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            if (header) {
+                writer.println("timestamp,id,calls,bytes,bytes_per_call");
+            }
+            for (Entry entry : top(ITEMS.size())) {
+                long calls = entry.calls();
+                long bytes = entry.totalBytes();
+                writer.print(time);
+                writer.print(',');
+                writer.print(entry.id);
+                writer.print(',');
+                writer.print(calls);
+                writer.print(',');
+                writer.print(bytes);
+                writer.print(',');
+                writer.println(calls == 0 ? 0 : bytes / calls);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Nullable
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    public static final class Entry {
+
+        @Getter
+        private final String id;
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+
+        private Entry(String id) {
+            this.id = id;
+        }
+
+        private void record(long allocated) {
+            this.bytes.add(allocated);
+            this.calls.increment();
+        }
+
+        public long totalBytes() {
+            return this.bytes.sum();
+        }
+
+        public long calls() {
+            return this.calls.sum();
+        }
+
+    }
+
+}
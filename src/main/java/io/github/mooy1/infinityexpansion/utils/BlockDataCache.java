@@ -0,0 +1,218 @@
+package io.github.mooy1.infinityexpansion.utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinitylib.common.Events;
+import io.github.mooy1.infinitylib.common.Scheduler;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
+
+/**
+ * Typed block data backed by a write-behind cache of primitives.
+ *
+ * Values are parsed from block storage once per location and key, sets only change the cache,
+ * and dirty values are written back every few ticks and on shutdown. Missing or malformed values
+ * return the default without writing anything. Locations in chunks which unloaded are dropped
+ * after the next flush has written them, locations without block info when they are flushed
+ * and locations where a block is placed are dropped without writing them, so a new block never
+ * reads values left behind by a block which was removed without being broken.
+ */
+@ParametersAreNonnullByDefault
+public final class BlockDataCache implements Listener {
+
+    private static final Map<Location, Map<String, Value>> CACHE = new ConcurrentHashMap<>();
+    private static final Map<Location, Boolean> DIRTY = new ConcurrentHashMap<>();
+
+    private static volatile boolean unloaded;
+
+    private BlockDataCache() { }
+
+    public static void setup() {
+        int interval = InfinityExpansion.config().getInt("block-data-cache.flush-interval", 1, 6000);
+        Scheduler.repeat(interval, BlockDataCache::flush);
+        Events.registerListener(new BlockDataCache());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent e) {
+        unloaded = true;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent e) {
+        // before the placed block's handlers, anything cached here belongs to a block which is gone
+        remove(e.getBlock().getLocation());
+    }
+
+    public static int getInt(Location l, String key, int def) {
+        return (int) getLong(l, key, def);
+    }
+
+    public static long getLong(Location l, String key, long def) {
+        Map<String, Value> values = CACHE.computeIfAbsent(l, k -> new ConcurrentHashMap<>());
+        Value value = values.get(key);
+        if (value == null) {
+            value = new Value(Value.NUMBER);
+            value.number = parse(BlockStorage.getLocationInfo(l, key), def);
+            values.put(key, value);
+        }
+        return value.number;
+    }
+
+    public static boolean getBoolean(Location l, String key) {
+        Map<String, Value> values = CACHE.computeIfAbsent(l, k -> new ConcurrentHashMap<>());
+        Value value = values.get(key);
+        if (value == null) {
+            value = new Value(Value.BOOLEAN);
+            value.number = "true".equals(BlockStorage.getLocationInfo(l, key)) ? 1 : 0;
+            values.put(key, value);
+        }
+        return value.number != 0;
+    }
+
+    @Nullable
+    public static String getString(Location l, String key) {
+        Map<String, Value> values = CACHE.computeIfAbsent(l, k -> new ConcurrentHashMap<>());
+        Value value = values.get(key);
+        if (value == null) {
+            value = new Value(Value.STRING);
+            value.string = BlockStorage.getLocationInfo(l, key);
+            values.put(key, value);
+        }
+        return value.string;
+    }
+
+    public static void setInt(Location l, String key, int value) {
+        set(l, key, Value.NUMBER, value, null);
+    }
+
+    public static void setLong(Location l, String key, long value) {
+        set(l, key, Value.NUMBER, value, null);
+    }
+
+    public static void setBoolean(Location l, String key, boolean value) {
+        set(l, key, Value.BOOLEAN, value ? 1 : 0, null);
+    }
+
+    /**
+     * Sets a string value, null removes the key from block storage
+     */
+    public static void setString(Location l, String key, @Nullable String value) {
+        set(l, key, Value.STRING, 0, value);
+    }
+
+    /**
+     * Drops the cached values of a location without saving them, for when the block is removed
+     * or its data was changed directly in block storage
+     */
+    public static void remove(Location l) {
+        CACHE.remove(l);
+        DIRTY.remove(l);
+    }
+
+    /**
+     * Writes every dirty value to block storage, then drops the locations in chunks which unloaded since
+     */
+    public static void flush() {
+        for (Location l : DIRTY.keySet()) {
+            DIRTY.remove(l);
+            Map<String, Value> values = CACHE.get(l);
+            if (values == null) {
+                continue;
+            }
+            if (!BlockStorage.hasBlockInfo(l)) {
+                // the block was removed, don't let a block placed here later read its values
+                CACHE.remove(l);
+                continue;
+            }
+            for (Map.Entry<String, Value> entry : values.entrySet()) {
+                Value value = entry.getValue();
+                if (value.dirty) {
+                    value.dirty = false;
+                    BlockStorage.addBlockInfo(l, entry.getKey(), value.serialize());
+                }
+            }
+        }
+
+        if (unloaded) {
+            unloaded = false;
+            for (Location l : CACHE.keySet()) {
+                World world = l.getWorld();
+                if (!DIRTY.containsKey(l) && (world == null || !world.isChunkLoaded(l.getBlockX() >> 4, l.getBlockZ() >> 4))) {
+                    CACHE.remove(l);
+                }
+            }
+        }
+    }
+
+    private static void set(Location l, String key, byte type, long number, @Nullable String string) {
+        Map<String, Value> values = CACHE.computeIfAbsent(l, k -> new ConcurrentHashMap<>());
+        Value value = values.get(key);
+        if (value == null) {
+            value = new Value(type);
+            values.put(key, value);
+        }
+        else if (value.number == number && Objects.equals(value.string, string)) {
+            return;
+        }
+        value.number = number;
+        value.string = string;
+        value.dirty = true;
+        DIRTY.put(l, Boolean.TRUE);
+    }
+
+    private static long parse(@Nullable String string, long def) {
+        if (string == null) {
+            return def;
+        }
+        try {
+            return Long.parseLong(string);
+        }
+        catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private static final class Value {
+
+        private static final byte NUMBER = 0;
+        private static final byte BOOLEAN = 1;
+        private static final byte STRING = 2;
+
+        private final byte type;
+        private volatile long number;
+        private volatile String string;
+        private volatile boolean dirty;
+
+        private Value(byte type) {
+            this.type = type;
+        }
+
+        @Nullable
+        private String serialize() {
+            switch (this.type) {
+                case BOOLEAN:
+                    return this.number != 0 ? "true" : null;
+                case STRING:
+                    return this.string;
+                default:
+                    return String.valueOf(this.number);
+            }
+        }
+
+    }
+
+}
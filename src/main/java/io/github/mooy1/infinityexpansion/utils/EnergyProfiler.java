@@ -0,0 +1,140 @@
+package io.github.mooy1.infinityexpansion.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+import lombok.Getter;
+import lombok.experimental.UtilityClass;
+
+import org.bukkit.Location;
+
+/**
+ * Records time spent in the energy network callbacks of this addon, per class and per location.
+ *
+ * Usage: {@code long start = EnergyProfiler.start(); ... EnergyProfiler.stop(start, this, l);}
+ * When disabled, {@link #start()} returns 0 and {@link #stop} returns immediately.
+ */
+@UtilityClass
+public final class EnergyProfiler {
+
+    private static final Map<Class<?>, Entry> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<Location, Entry> LOCATIONS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        EnergyProfiler.enabled = enabled;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(long start, @Nonnull Object source, @Nonnull Location l) {
+        if (start == 0) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - start;
+        Class<?> type = source.getClass();
+        CLASSES.computeIfAbsent(type, k -> new Entry(type.getSimpleName(), null)).record(nanos);
+        LOCATIONS.computeIfAbsent(l, k -> new Entry(type.getSimpleName(), l)).record(nanos);
+    }
+
+    public static void reset() {
+        CLASSES.clear();
+        LOCATIONS.clear();
+    }
+
+    @Nonnull
+    public static List<Entry> topClasses(int amount) {
+        return top(CLASSES, amount);
+    }
+
+    @Nonnull
+    public static List<Entry> topLocations(int amount) {
+        return top(LOCATIONS, amount);
+    }
+
+    /**
+     * Writes every location in collapsed stack format (one "frame;frame;frame value" per line)
+     * which can be fed directly into flamegraph.pl or speedscope, value is in microseconds.
+     */
+    public static int export(@Nonnull File file) throws IOException {
+        int lines = 0;
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            for (Entry entry : LOCATIONS.values()) {
+                Location l = entry.location;
+                long micros = entry.nanos.sum() / 1000;
+                if (l == null || micros == 0) {
+                    continue;
+                }
+                writer.print("InfinityExpansion;");
+                writer.print(entry.name);
+                writer.print(';');
+                writer.print(l.getWorld() == null ? "unknown" : l.getWorld().getName());
+                writer.print('(');
+                writer.print(l.getBlockX());
+                writer.print(',');
+                writer.print(l.getBlockY());
+                writer.print(',');
+                writer.print(l.getBlockZ());
+                writer.print(") ");
+                writer.println(micros);
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    @Nonnull
+    private static List<Entry> top(Map<?, Entry> map, int amount) {
+        List<Entry> entries = new ArrayList<>(map.values());
+        entries.sort(Comparator.comparingLong(Entry::totalNanos).reversed());
+        return entries.size() > amount ? entries.subList(0, amount) : entries;
+    }
+
+    public static final class Entry {
+
+        @Getter
+        private final String name;
+        @Getter
+        private final Location location;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder calls = new LongAdder();
+
+        private Entry(String name, Location location) {
+            this.name = name;
+            this.location = location;
+        }
+
+        private void record(long time) {
+            this.nanos.add(time);
+            this.calls.increment();
+        }
+
+        public long totalNanos() {
+            return this.nanos.sum();
+        }
+
+        public long calls() {
+            return this.calls.sum();
+        }
+
+    }
+
+}
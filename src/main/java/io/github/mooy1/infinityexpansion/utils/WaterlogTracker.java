@@ -0,0 +1,202 @@
+package io.github.mooy1.infinityexpansion.utils;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.Waterlogged;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import io.github.mooy1.infinitylib.common.Events;
+import io.github.mooy1.infinitylib.common.Scheduler;
+
+/**
+ * Tracks whether blocks are waterlogged with a pair of bitsets per chunk.
+ *
+ * Only blocks which were looked up are tracked. They are read on the main thread: the first time they are
+ * looked up, whenever their chunk loads, after bucket, dispenser, fluid flow, place and break events,
+ * and every {@link #REVALIDATE_INTERVAL} ticks for changes which have no event, such as pistons.
+ * Lookups never touch the world or block storage, a block looked up off the main thread for the first
+ * time is not waterlogged until it was read on the next tick.
+ */
+public final class WaterlogTracker implements Listener {
+
+    private static final int REVALIDATE_INTERVAL = 1200;
+    private static final Map<UUID, Map<Long, ChunkBits>> WORLDS = new ConcurrentHashMap<>();
+
+    private WaterlogTracker() { }
+
+    public static void setup() {
+        Events.registerListener(new WaterlogTracker());
+        Scheduler.repeat(REVALIDATE_INTERVAL, WaterlogTracker::revalidate);
+    }
+
+    public static boolean isWaterLogged(@Nonnull Block b) {
+        ChunkBits chunk = WORLDS.computeIfAbsent(b.getWorld().getUID(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey(b.getX() >> 4, b.getZ() >> 4), k -> new ChunkBits());
+        int index = index(b);
+        synchronized (chunk) {
+            if (chunk.known.get(index)) {
+                return chunk.waterlogged.get(index);
+            }
+            // tracked from now on, so it is only scheduled once
+            chunk.known.set(index);
+        }
+        if (Bukkit.isPrimaryThread()) {
+            return chunk.read(index, b);
+        }
+        Scheduler.run(() -> chunk.read(index, b));
+        return false;
+    }
+
+    /**
+     * Reads the block again next tick, since these events are called before the change happens
+     */
+    public static void update(@Nonnull Block b) {
+        Map<Long, ChunkBits> chunks = WORLDS.get(b.getWorld().getUID());
+        if (chunks == null) {
+            return;
+        }
+        ChunkBits chunk = chunks.get(chunkKey(b.getX() >> 4, b.getZ() >> 4));
+        if (chunk == null) {
+            return;
+        }
+        int index = index(b);
+        synchronized (chunk) {
+            if (!chunk.known.get(index)) {
+                // never looked up, nothing to update
+                return;
+            }
+        }
+        Scheduler.run(() -> chunk.read(index, b));
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static int index(Block b) {
+        return (b.getY() - b.getWorld().getMinHeight()) << 8 | (b.getZ() & 15) << 4 | (b.getX() & 15);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlow(BlockFromToEvent e) {
+        update(e.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEmpty(PlayerBucketEmptyEvent e) {
+        update(e.getBlock());
+        update(e.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFill(PlayerBucketFillEvent e) {
+        update(e.getBlock());
+        update(e.getBlockClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent e) {
+        // dispensers place and pick up water in front of them
+        Block b = e.getBlock();
+        BlockData data = b.getBlockData();
+        if (data instanceof Directional) {
+            update(b.getRelative(((Directional) data).getFacing()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent e) {
+        update(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent e) {
+        update(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        Map<Long, ChunkBits> chunks = WORLDS.get(e.getWorld().getUID());
+        if (chunks != null) {
+            Chunk chunk = e.getChunk();
+            ChunkBits bits = chunks.get(chunkKey(chunk.getX(), chunk.getZ()));
+            if (bits != null) {
+                bits.readAll(e.getWorld(), chunk.getX(), chunk.getZ());
+            }
+        }
+    }
+
+    /**
+     * Reads every tracked block in loaded chunks again
+     */
+    private static void revalidate() {
+        for (Map.Entry<UUID, Map<Long, ChunkBits>> entry : WORLDS.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) {
+                continue;
+            }
+            for (Map.Entry<Long, ChunkBits> chunk : entry.getValue().entrySet()) {
+                int x = (int) (chunk.getKey() >> 32);
+                int z = (int) (long) chunk.getKey();
+                if (world.isChunkLoaded(x, z)) {
+                    chunk.getValue().readAll(world, x, z);
+                }
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        World world = e.getWorld();
+        WORLDS.remove(world.getUID());
+    }
+
+    private static final class ChunkBits {
+
+        private final BitSet known = new BitSet();
+        private final BitSet waterlogged = new BitSet();
+
+        private boolean read(int index, Block b) {
+            BlockData data = b.getBlockData();
+            boolean value = data instanceof Waterlogged && ((Waterlogged) data).isWaterlogged();
+            synchronized (this) {
+                this.known.set(index);
+                this.waterlogged.set(index, value);
+            }
+            return value;
+        }
+
+        private void readAll(World world, int chunkX, int chunkZ) {
+            BitSet known;
+            synchronized (this) {
+                known = (BitSet) this.known.clone();
+            }
+            for (int i = known.nextSetBit(0) ; i >= 0 ; i = known.nextSetBit(i + 1)) {
+                read(i, world.getBlockAt(chunkX << 4 | (i & 15), (i >> 8) + world.getMinHeight(), chunkZ << 4 | (i >> 4 & 15)));
+            }
+        }
+
+    }
+
+}
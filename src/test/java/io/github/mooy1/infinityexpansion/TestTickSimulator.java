@@ -0,0 +1,59 @@
+package io.github.mooy1.infinityexpansion;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a small tick simulation by default, for the 10k machine scenario use
+ * -Dsimulation.machines=250 -Dsimulation.ticks=100
+ *
+ * The report is published as a test report entry.
+ */
+class TestTickSimulator {
+
+    private static final int MACHINES = Integer.getInteger("simulation.machines", 16);
+    private static final int TICKS = Integer.getInteger("simulation.ticks", 10);
+    private static final int WARMUP = Integer.getInteger("simulation.warmup", 5);
+
+    private static ServerMock server;
+
+    @BeforeAll
+    public static void load() {
+        server = MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void simulate(TestReporter reporter) {
+        TickSimulator simulator = new TickSimulator(server);
+        assertNotEquals(0, simulator.place(MACHINES));
+
+        simulator.run(WARMUP);
+        simulator.reset();
+        simulator.run(TICKS);
+
+        Map<String, RuntimeException> errors = simulator.errors();
+        assertTrue(errors.isEmpty(), () -> "Machines failed to tick: " + errors);
+
+        reporter.publishEntry("Simulated " + TICKS + " slimefun ticks with " + MACHINES + " of each machine",
+                simulator.report());
+    }
+
+}
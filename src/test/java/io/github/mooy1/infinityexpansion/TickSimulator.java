@@ -0,0 +1,265 @@
+package io.github.mooy1.infinityexpansion;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import io.github.thebusybiscuit.slimefun4.core.attributes.EnergyNetProvider;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+import me.mrCookieSlime.CSCoreLibPlugin.Configuration.Config;
+import me.mrCookieSlime.Slimefun.Objects.handlers.BlockTicker;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+/**
+ * Places every ticking machine of the addon into a mock world and drives their tickers the way
+ * Slimefun's ticker task does, measuring per machine type the time, allocated bytes,
+ * block storage values written and menu changes of each slimefun tick.
+ *
+ * Tickers are all run on the calling thread, including ones that are asynchronous on a server.
+ * Between slimefun ticks the scheduler is advanced so addon tasks like the block data cache flush run too.
+ */
+final class TickSimulator {
+
+    private final Map<SlimefunItem, Fleet> fleets = new LinkedHashMap<>();
+    private final ServerMock server;
+    private final World world;
+    private final com.sun.management.ThreadMXBean threads;
+    private long schedulerNanos;
+    private int ticks;
+
+    TickSimulator(@Nonnull ServerMock server) {
+        this.server = server;
+        this.world = server.addSimpleWorld("simulation");
+        if (BlockStorage.getStorage(this.world) == null) {
+            new BlockStorage(this.world);
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean : null;
+    }
+
+    /**
+     * Places the given number of each ticking machine, each type on its own layer spread over many chunks
+     *
+     * @return the number of machine types placed
+     */
+    int place(int perType) {
+        int y = this.world.getMinHeight() + 1;
+        for (SlimefunItem item : Slimefun.getRegistry().getEnabledSlimefunItems()) {
+            if (!(item.getAddon() instanceof InfinityExpansion)
+                    || (item.getBlockTicker() == null && !(item instanceof EnergyNetProvider))) {
+                continue;
+            }
+
+            Fleet fleet = new Fleet(perType);
+            for (int i = 0 ; i < perType ; i++) {
+                Block b = this.world.getBlockAt(i % 128, y, i / 128);
+                b.setType(item.getItem().getType());
+                BlockStorage.addBlockInfo(b, "id", item.getId(), true);
+                fleet.blocks.add(b);
+                fleet.data.add(BlockStorage.getLocationInfo(b.getLocation()));
+                fleet.menus.add(BlockStorage.getInventory(b));
+            }
+            this.fleets.put(item, fleet);
+
+            y += 2;
+            if (y >= this.world.getMaxHeight()) {
+                break;
+            }
+        }
+        return this.fleets.size();
+    }
+
+    /**
+     * Clears the results, for after warming up
+     */
+    void reset() {
+        for (Fleet fleet : this.fleets.values()) {
+            fleet.nanos = 0;
+            fleet.bytes = 0;
+            fleet.writes = 0;
+            fleet.menuChanges = 0;
+        }
+        this.schedulerNanos = 0;
+        this.ticks = 0;
+    }
+
+    void run(int slimefunTicks) {
+        int tickRate = Slimefun.getTickerTask().getTickRate();
+        long thread = Thread.currentThread().getId();
+
+        for (int t = 0 ; t < slimefunTicks ; t++) {
+            for (Fleet fleet : this.fleets.values()) {
+                fleet.snapshot();
+            }
+
+            for (Map.Entry<SlimefunItem, Fleet> entry : this.fleets.entrySet()) {
+                Fleet fleet = entry.getValue();
+                if (fleet.error != null) {
+                    continue;
+                }
+
+                long allocated = this.threads == null ? 0 : this.threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                try {
+                    fleet.tick(entry.getKey());
+                }
+                catch (RuntimeException e) {
+                    fleet.error = e;
+                }
+                fleet.nanos += System.nanoTime() - start;
+                if (this.threads != null) {
+                    fleet.bytes += this.threads.getThreadAllocatedBytes(thread) - allocated;
+                }
+            }
+
+            long start = System.nanoTime();
+            this.server.getScheduler().performTicks(tickRate);
+            this.schedulerNanos += System.nanoTime() - start;
+
+            for (Fleet fleet : this.fleets.values()) {
+                fleet.diff();
+            }
+            this.ticks++;
+        }
+    }
+
+    /**
+     * The exception each machine type failed with, machines which failed are not ticked again
+     */
+    @Nonnull
+    Map<String, RuntimeException> errors() {
+        Map<String, RuntimeException> errors = new LinkedHashMap<>();
+        for (Map.Entry<SlimefunItem, Fleet> entry : this.fleets.entrySet()) {
+            if (entry.getValue().error != null) {
+                errors.put(entry.getKey().getId(), entry.getValue().error);
+            }
+        }
+        return errors;
+    }
+
+    @Nonnull
+    String report() {
+        int ticks = Math.max(1, this.ticks);
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-32s %8s %12s %10s %12s %10s %10s%n",
+                "Machine", "Count", "ns/tick", "ns/block", "bytes/tick", "writes/t", "menu/t"));
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        int totalBlocks = 0;
+
+        for (Map.Entry<SlimefunItem, Fleet> entry : this.fleets.entrySet()) {
+            Fleet fleet = entry.getValue();
+            int blocks = fleet.blocks.size();
+            builder.append(String.format("%-32s %8d %12d %10d %12s %10.1f %10.1f%s%n",
+                    entry.getKey().getId(), blocks,
+                    fleet.nanos / ticks, fleet.nanos / ticks / Math.max(1, blocks),
+                    this.threads == null ? "n/a" : String.valueOf(fleet.bytes / ticks),
+                    (double) fleet.writes / ticks, (double) fleet.menuChanges / ticks,
+                    fleet.error == null ? "" : "  failed: " + fleet.error));
+            totalNanos += fleet.nanos;
+            totalBytes += fleet.bytes;
+            totalBlocks += blocks;
+        }
+
+        builder.append(String.format("%-32s %8d %12d %10d %12s%n", "Total", totalBlocks,
+                totalNanos / ticks, totalNanos / ticks / Math.max(1, totalBlocks),
+                this.threads == null ? "n/a" : String.valueOf(totalBytes / ticks)));
+        builder.append(String.format("%-32s %8s %12d%n", "Scheduler", "", this.schedulerNanos / ticks));
+        return builder.toString();
+    }
+
+    private static final class Fleet {
+
+        private final List<Block> blocks;
+        private final List<Config> data;
+        private final List<BlockMenu> menus;
+        private final List<Map<String, String>> values;
+        private final long[] changes;
+        private long nanos;
+        private long bytes;
+        private long writes;
+        private long menuChanges;
+        private RuntimeException error;
+
+        private Fleet(int size) {
+            this.blocks = new ArrayList<>(size);
+            this.data = new ArrayList<>(size);
+            this.menus = new ArrayList<>(size);
+            this.values = new ArrayList<>(size);
+            this.changes = new long[size];
+        }
+
+        @SuppressWarnings("deprecation")
+        private void tick(SlimefunItem item) {
+            BlockTicker ticker = item.getBlockTicker();
+            if (ticker != null) {
+                ticker.startNewTick();
+                for (int i = 0 ; i < this.blocks.size() ; i++) {
+                    ticker.update();
+                    ticker.tick(this.blocks.get(i), item, this.data.get(i));
+                }
+            }
+            if (item instanceof EnergyNetProvider) {
+                EnergyNetProvider provider = (EnergyNetProvider) item;
+                for (int i = 0 ; i < this.blocks.size() ; i++) {
+                    provider.getGeneratedOutput(this.blocks.get(i).getLocation(), this.data.get(i));
+                }
+            }
+        }
+
+        private void snapshot() {
+            this.values.clear();
+            for (int i = 0 ; i < this.blocks.size() ; i++) {
+                this.values.add(read(this.data.get(i)));
+                BlockMenu menu = this.menus.get(i);
+                this.changes[i] = menu == null ? 0 : menu.getUnsavedChanges();
+            }
+        }
+
+        private void diff() {
+            for (int i = 0 ; i < this.blocks.size() ; i++) {
+                Map<String, String> before = this.values.get(i);
+                Map<String, String> after = read(this.data.get(i));
+                for (Map.Entry<String, String> entry : after.entrySet()) {
+                    if (!Objects.equals(before.get(entry.getKey()), entry.getValue())) {
+                        this.writes++;
+                    }
+                }
+                for (String key : before.keySet()) {
+                    if (!after.containsKey(key)) {
+                        this.writes++;
+                    }
+                }
+                BlockMenu menu = this.menus.get(i);
+                if (menu != null) {
+                    this.menuChanges += Math.max(0, menu.getUnsavedChanges() - this.changes[i]);
+                }
+            }
+        }
+
+        private static Map<String, String> read(Config config) {
+            Map<String, String> values = new HashMap<>();
+            for (String key : config.getKeys()) {
+                values.put(key, config.getString(key));
+            }
+            return values;
+        }
+
+    }
+
+}
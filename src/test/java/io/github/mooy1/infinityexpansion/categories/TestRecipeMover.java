@@ -0,0 +1,141 @@
+package io.github.mooy1.infinityexpansion.categories;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinitylib.common.StackUtils;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TestRecipeMover {
+
+    private static final Material[] INGREDIENTS = {
+            Material.IRON_INGOT, Material.GOLD_INGOT, Material.DIAMOND,
+            Material.EMERALD, Material.REDSTONE, Material.LAPIS_LAZULI
+    };
+
+    private static ItemStack[] recipe;
+
+    @BeforeAll
+    public static void load() {
+        MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+
+        // 6x6 recipe using every ingredient 6 times
+        recipe = new ItemStack[36];
+        for (int i = 0 ; i < recipe.length ; i++) {
+            recipe[i] = new ItemStack(INGREDIENTS[i % INGREDIENTS.length]);
+        }
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testMaxMatchesLegacy() {
+        ItemStack[] legacyContents = fullInventory();
+        ItemStack[] legacyGrid = new ItemStack[recipe.length];
+        legacyMove(legacyContents, legacyGrid, true);
+
+        ItemStack[] contents = fullInventory();
+        ItemStack[] grid = new ItemStack[recipe.length];
+        assertEquals(64, RecipeMover.move(recipe, contents, grid, 64));
+
+        for (int i = 0 ; i < grid.length ; i++) {
+            assertEquals(legacyGrid[i], grid[i]);
+        }
+        assertEquals(total(legacyContents), total(contents));
+    }
+
+    @Test
+    void testIncompleteSetMovesNothing() {
+        ItemStack[] contents = new ItemStack[36];
+        for (int i = 0 ; i < INGREDIENTS.length - 1 ; i++) {
+            contents[i] = new ItemStack(INGREDIENTS[i], 64);
+        }
+        ItemStack[] grid = new ItemStack[recipe.length];
+
+        assertEquals(0, RecipeMover.move(recipe, contents, grid, 64));
+        for (ItemStack item : grid) {
+            assertNull(item);
+        }
+        assertEquals(64 * (INGREDIENTS.length - 1), total(contents));
+    }
+
+    @Test
+    void testLimitedByGrid() {
+        ItemStack[] contents = fullInventory();
+        ItemStack[] grid = new ItemStack[recipe.length];
+        grid[0] = new ItemStack(INGREDIENTS[0], 60);
+
+        assertEquals(4, RecipeMover.move(recipe, contents, grid, 64));
+        assertEquals(64, grid[0].getAmount());
+        assertEquals(4, grid[1].getAmount());
+        assertEquals(36 * 64 - 4 * 36, total(contents));
+    }
+
+    private static ItemStack[] fullInventory() {
+        ItemStack[] contents = new ItemStack[36];
+        for (int i = 0 ; i < contents.length ; i++) {
+            contents[i] = new ItemStack(INGREDIENTS[i % INGREDIENTS.length], 64);
+        }
+        return contents;
+    }
+
+    private static int total(ItemStack[] contents) {
+        int total = 0;
+        for (ItemStack item : contents) {
+            if (item != null) {
+                total += item.getAmount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * The loop used before the histogram, to check the histogram against, with the menu replaced by the grid array
+     */
+    private static void legacyMove(ItemStack[] contents, ItemStack[] grid, boolean max) {
+        for (int i = 0 ; i < (max ? 64 : 1) ; i++) {
+            for (int slot = 0 ; slot < recipe.length ; slot++) {
+                ItemStack recipeItem = recipe[slot];
+
+                if (recipeItem == null) {
+                    continue;
+                }
+
+                String id = StackUtils.getIdOrType(recipeItem);
+
+                for (ItemStack item : contents) {
+                    if (item != null && item.getAmount() > 0 && StackUtils.getIdOrType(item).equals(id)) {
+                        ItemStack output = item.clone();
+                        output.setAmount(1);
+
+                        ItemStack current = grid[slot];
+                        if (current == null) {
+                            item.setAmount(item.getAmount() - 1);
+                            grid[slot] = output;
+                            break;
+                        }
+                        if (current.isSimilar(output) && current.getAmount() < current.getMaxStackSize()) {
+                            item.setAmount(item.getAmount() - 1);
+                            current.setAmount(current.getAmount() + 1);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
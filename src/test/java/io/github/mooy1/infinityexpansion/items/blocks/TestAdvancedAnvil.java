@@ -0,0 +1,222 @@
+package io.github.mooy1.infinityexpansion.items.blocks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.google.common.collect.MapDifference;
+import com.google.common.collect.Maps;
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.utils.Util;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestAdvancedAnvil {
+
+    private static final int[] SHARPNESS = {
+            0, 1, 5, 8, 9
+    };
+    private static final int[] UNBREAKING = {
+            0, 3
+    };
+    private static final int[] MENDING = {
+            0, 1
+    };
+    private static final Material[] TYPES = {
+            Material.ENCHANTED_BOOK, Material.DIAMOND_SWORD
+    };
+
+    private static Map<Enchantment, Integer> maxLevels;
+
+    @BeforeAll
+    public static void load() {
+        MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+        maxLevels = Util.getEnchants(Objects.requireNonNull(
+                InfinityExpansion.config().getConfigurationSection("advanced-anvil-max-levels")
+        ));
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testOutputMatchesMapDifference() {
+        for (Material type1 : TYPES) {
+            for (Material type2 : TYPES) {
+                for (ItemStack item1 : items(type1)) {
+                    for (ItemStack item2 : items(type2)) {
+                        assertEquals(getOutput(item1, item2), AdvancedAnvil.getOutput(item1, item2),
+                                item1 + " + " + item2);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMergeBooks() {
+        ItemStack item1 = book(Enchantment.DAMAGE_ALL, 5);
+        List<ItemStack> books = Arrays.asList(
+                book(Enchantment.DAMAGE_ALL, 5),
+                book(Enchantment.DAMAGE_ALL, 6),
+                book(Enchantment.DAMAGE_ALL, 7)
+        );
+
+        Map<Enchantment, Integer> changes = new HashMap<>();
+        assertEquals(3, AdvancedAnvil.mergeBooks(item1, books, 8, changes));
+        assertEquals(Collections.singletonMap(Enchantment.DAMAGE_ALL, 8), changes);
+    }
+
+    @Test
+    void testMergeBooksMaxSteps() {
+        ItemStack item1 = book(Enchantment.DAMAGE_ALL, 5);
+        List<ItemStack> books = Arrays.asList(
+                book(Enchantment.DAMAGE_ALL, 5),
+                book(Enchantment.DAMAGE_ALL, 6)
+        );
+
+        Map<Enchantment, Integer> changes = new HashMap<>();
+        assertEquals(1, AdvancedAnvil.mergeBooks(item1, books, 1, changes));
+        assertEquals(Collections.singletonMap(Enchantment.DAMAGE_ALL, 6), changes);
+    }
+
+    @Test
+    void testMergeBooksStopsAtUnchanged() {
+        ItemStack item1 = book(Enchantment.DAMAGE_ALL, 8);
+        List<ItemStack> books = Arrays.asList(
+                book(Enchantment.DAMAGE_ALL, 8),
+                book(Enchantment.DAMAGE_ALL, 9), // already at the max level
+                book(Enchantment.DURABILITY, 1)
+        );
+
+        Map<Enchantment, Integer> changes = new HashMap<>();
+        assertEquals(1, AdvancedAnvil.mergeBooks(item1, books, 8, changes));
+        assertEquals(Collections.singletonMap(Enchantment.DAMAGE_ALL, 9), changes);
+
+        changes.clear();
+        assertEquals(0, AdvancedAnvil.mergeBooks(item1, Collections.singletonList(book(Enchantment.DAMAGE_ALL, 1)), 8, changes));
+        assertTrue(changes.isEmpty());
+    }
+
+    private static ItemStack book(Enchantment enchant, int level) {
+        return item(Material.ENCHANTED_BOOK, Collections.singletonMap(enchant, level));
+    }
+
+    private static ItemStack[] items(Material type) {
+        ItemStack[] items = new ItemStack[SHARPNESS.length * UNBREAKING.length * MENDING.length];
+        int i = 0;
+        for (int sharpness : SHARPNESS) {
+            for (int unbreaking : UNBREAKING) {
+                for (int mending : MENDING) {
+                    Map<Enchantment, Integer> enchants = new HashMap<>();
+                    putLevel(enchants, Enchantment.DAMAGE_ALL, sharpness);
+                    putLevel(enchants, Enchantment.DURABILITY, unbreaking);
+                    putLevel(enchants, Enchantment.MENDING, mending);
+                    items[i++] = item(type, enchants);
+                }
+            }
+        }
+        return items;
+    }
+
+    private static void putLevel(Map<Enchantment, Integer> enchants, Enchantment enchant, int level) {
+        if (level != 0) {
+            enchants.put(enchant, level);
+        }
+    }
+
+    private static ItemStack item(Material type, Map<Enchantment, Integer> enchants) {
+        ItemStack item = new ItemStack(type);
+        setEnchants(item, item.getItemMeta(), enchants);
+        return item;
+    }
+
+    /**
+     * The merge the anvil used before enchants were merged by ordinal
+     */
+    private static ItemStack getOutput(ItemStack item1, ItemStack item2) {
+        Map<Enchantment, Integer> enchants1 = getEnchants(item1.getItemMeta());
+        Map<Enchantment, Integer> enchants2 = getEnchants(item2.getItemMeta());
+        if (enchants1.size() == 0 && enchants2.size() == 0) {
+            return null;
+        }
+        MapDifference<Enchantment, Integer> dif = Maps.difference(enchants1, enchants2);
+
+        ItemStack item = item1.clone();
+        item.setAmount(1);
+        Map<Enchantment, Integer> enchants = new HashMap<>();
+        boolean changed = false;
+
+        for (Map.Entry<Enchantment, Integer> e : dif.entriesInCommon().entrySet()) {
+            if (maxLevels.containsKey(e.getKey()) && e.getValue() < maxLevels.get(e.getKey())) {
+                enchants.put(e.getKey(), e.getValue() + 1);
+                changed = true;
+            }
+        }
+
+        for (Map.Entry<Enchantment, MapDifference.ValueDifference<Integer>> e : dif.entriesDiffering().entrySet()) {
+            if (e.getValue().rightValue() > e.getValue().leftValue()) {
+                enchants.put(e.getKey(), e.getValue().rightValue());
+                changed = true;
+            }
+        }
+
+        boolean bookOntoTool = item2.getType() == Material.ENCHANTED_BOOK && item1.getType() != Material.ENCHANTED_BOOK;
+
+        for (Map.Entry<Enchantment, Integer> e : dif.entriesOnlyOnRight().entrySet()) {
+            if (bookOntoTool && !e.getKey().canEnchantItem(item)) {
+                continue;
+            }
+            enchants.put(e.getKey(), e.getValue());
+            changed = true;
+        }
+
+        if (!changed) {
+            return null;
+        }
+        setEnchants(item, item.getItemMeta(), enchants);
+        return item;
+    }
+
+    private static Map<Enchantment, Integer> getEnchants(ItemMeta meta) {
+        if (meta instanceof EnchantmentStorageMeta) {
+            return ((EnchantmentStorageMeta) meta).getStoredEnchants();
+        }
+        return meta.getEnchants();
+    }
+
+    private static void setEnchants(ItemStack item, ItemMeta meta, Map<Enchantment, Integer> enchants) {
+        if (meta instanceof EnchantmentStorageMeta) {
+            EnchantmentStorageMeta book = (EnchantmentStorageMeta) meta;
+            for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
+                book.addStoredEnchant(entry.getKey(), entry.getValue(), true);
+            }
+            item.setItemMeta(book);
+        }
+        else {
+            for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
+                item.addUnsafeEnchantment(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+}
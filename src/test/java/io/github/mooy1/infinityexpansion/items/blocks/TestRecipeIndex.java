@@ -0,0 +1,116 @@
+package io.github.mooy1.infinityexpansion.items.blocks;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TestRecipeIndex {
+
+    private static final int RECIPES = 144;
+    private static final Material[] INGREDIENTS = {
+            Material.IRON_INGOT, Material.GOLD_INGOT, Material.DIAMOND,
+            Material.EMERALD, Material.REDSTONE, Material.LAPIS_LAZULI
+    };
+
+    private static RecipeIndex index;
+    private static ItemStack[][] inputs;
+
+    @BeforeAll
+    public static void load() {
+        MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+
+        // recipes which only differ in the position and type of one ingredient
+        index = new RecipeIndex(36);
+        inputs = new ItemStack[RECIPES][];
+        for (int r = 0 ; r < RECIPES ; r++) {
+            ItemStack[] input = new ItemStack[36];
+            for (int i = 0 ; i < input.length ; i++) {
+                input[i] = new ItemStack(INGREDIENTS[i % 2]);
+            }
+            input[r % 36] = new ItemStack(INGREDIENTS[2 + r / 36 % 4]);
+            inputs[r] = input;
+            index.add(input, new ItemStack(Material.NETHER_STAR, 1 + r % 16));
+        }
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testFind() {
+        RecipeIndex.Recipe recipe = index.find(grid(inputs[50], 1));
+        assertNotNull(recipe);
+        assertEquals(1 + 50 % 16, recipe.output().getAmount());
+    }
+
+    @Test
+    void testSets() {
+        ItemStack[] grid = grid(inputs[7], 10);
+        grid[3].setAmount(4);
+        RecipeIndex.Recipe recipe = index.find(grid);
+        assertNotNull(recipe);
+        assertEquals(4, recipe.sets(grid));
+    }
+
+    @Test
+    void testKeys() {
+        // every recipe outputs a nether star, so only the key tells them apart
+        for (ItemStack[] input : inputs) {
+            RecipeIndex.Recipe recipe = index.find(grid(input, 1));
+            assertNotNull(recipe);
+            assertSame(recipe, index.get(recipe.key()));
+        }
+        assertNotNull(index.get(Material.NETHER_STAR.name()));
+    }
+
+    @Test
+    void testWrongShape() {
+        ItemStack[] grid = grid(inputs[0], 1);
+        ItemStack first = grid[0];
+        grid[0] = grid[35];
+        grid[35] = first;
+        assertNull(index.find(grid));
+    }
+
+    @Test
+    void testMissingIngredient() {
+        ItemStack[] grid = grid(inputs[0], 1);
+        grid[20] = null;
+        assertNull(index.find(grid));
+    }
+
+    @Test
+    void testDifferentMeta() {
+        ItemStack[] grid = grid(inputs[0], 1);
+        ItemMeta meta = grid[1].getItemMeta();
+        meta.setDisplayName("Not an ingredient");
+        grid[1].setItemMeta(meta);
+        assertNull(index.find(grid));
+    }
+
+    private static ItemStack[] grid(ItemStack[] input, int amount) {
+        ItemStack[] grid = new ItemStack[input.length];
+        for (int i = 0 ; i < input.length ; i++) {
+            grid[i] = input[i].clone();
+            grid[i].setAmount(amount);
+        }
+        return grid;
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.mooy1.infinityexpansion.items.machines;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.categories.Groups;
+import io.github.mooy1.infinityexpansion.utils.BlockDataCache;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+import me.mrCookieSlime.Slimefun.api.BlockStorage;
+import me.mrCookieSlime.Slimefun.api.inventory.BlockMenu;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestPipelinedStoneworksFactory {
+
+    private static ServerMock server;
+    private static PipelinedStoneworksFactory factory;
+
+    @BeforeAll
+    public static void load() {
+        server = MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+        factory = (PipelinedStoneworksFactory) SlimefunItem.getById(Machines.PIPELINED_STONEWORKS_FACTORY.getItemId());
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testConstruct() {
+        assertNotNull(factory);
+        assertDoesNotThrow(() -> new PipelinedStoneworksFactory(Groups.ADVANCED_MACHINES,
+                new SlimefunItemStack("TEST_PIPELINED_STONEWORKS_FACTORY", Material.DISPENSER, "Test"),
+                RecipeType.NULL, new ItemStack[9]));
+    }
+
+    @Test
+    void testProcess() {
+        World world = server.addSimpleWorld("pipeline");
+        if (BlockStorage.getStorage(world) == null) {
+            new BlockStorage(world);
+        }
+        Block b = world.getBlockAt(0, 64, 0);
+        b.setType(Material.DISPENSER);
+        BlockStorage.addBlockInfo(b, "id", factory.getId(), true);
+        BlockMenu menu = BlockStorage.getInventory(b);
+        assertNotNull(menu);
+
+        for (int i = 0 ; i < 16 ; i++) {
+            assertTrue(factory.work(b, menu));
+        }
+
+        boolean output = false;
+        for (int slot : factory.getOutputSlots()) {
+            output |= menu.getItemInSlot(slot) != null;
+        }
+        assertTrue(output);
+
+        // the buffer is kept in block storage
+        BlockDataCache.flush();
+        assertTrue(Integer.parseInt(BlockStorage.getLocationInfo(b.getLocation(), "buffer_0")) > 0);
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.github.mooy1.infinityexpansion.items.machines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import io.github.mooy1.infinityexpansion.InfinityExpansion;
+import io.github.mooy1.infinityexpansion.categories.Groups;
+import io.github.mooy1.infinityexpansion.items.materials.Singularity;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItem;
+import io.github.thebusybiscuit.slimefun4.api.items.SlimefunItemStack;
+import io.github.thebusybiscuit.slimefun4.api.recipes.RecipeType;
+import io.github.thebusybiscuit.slimefun4.implementation.Slimefun;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TestResourceSynthesizer {
+
+    private static ResourceSynthesizer synthesizer;
+    private static SlimefunItemStack[] recipes;
+    private static String[] ids;
+
+    @BeforeAll
+    public static void load() {
+        MockBukkit.mock();
+        MockBukkit.load(Slimefun.class);
+        MockBukkit.load(InfinityExpansion.class);
+
+        List<SlimefunItemStack> singularities = new ArrayList<>();
+        for (SlimefunItem item : Slimefun.getRegistry().getAllSlimefunItems()) {
+            if (item instanceof Singularity) {
+                singularities.add((SlimefunItemStack) item.getItem());
+            }
+        }
+
+        // every pair of singularities, which is the largest recipe set the synthesizer could have
+        List<SlimefunItemStack> triples = new ArrayList<>();
+        for (int i = 0 ; i < singularities.size() ; i++) {
+            for (int j = i + 1 ; j < singularities.size() ; j++) {
+                triples.add(singularities.get(i));
+                triples.add(singularities.get(j));
+                triples.add(singularities.get((i + j) % singularities.size()));
+            }
+        }
+
+        recipes = triples.toArray(new SlimefunItemStack[0]);
+        ids = new String[singularities.size()];
+        for (int i = 0 ; i < ids.length ; i++) {
+            ids[i] = singularities.get(i).getItemId();
+        }
+        // a separate unregistered synthesizer so the recipes of the real one are left alone
+        synthesizer = new ResourceSynthesizer(Groups.ADVANCED_MACHINES,
+                new SlimefunItemStack("TEST_RESOURCE_SYNTHESIZER", Material.LODESTONE, "Test"),
+                RecipeType.NULL, new ItemStack[9]).recipes(recipes);
+    }
+
+    @AfterAll
+    public static void unload() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void testLookupMatchesLinearScan() {
+        assertFalse(ids.length < 2);
+        for (String id1 : ids) {
+            for (String id2 : ids) {
+                assertSame(linearScan(id1, id2), synthesizer.getOutput(id1, id2));
+            }
+        }
+        assertNull(synthesizer.getOutput(ids[0], "NOT_A_SINGULARITY"));
+    }
+
+    /**
+     * The lookup used before the index, to check the index against
+     */
+    private static SlimefunItemStack linearScan(String id1, String id2) {
+        SlimefunItemStack recipe = null;
+        for (int i = 0 ; i < recipes.length ; i += 3) {
+            if ((id1.equals(recipes[i].getItemId()) && id2.equals(recipes[i + 1].getItemId()) || (id2.equals(recipes[i].getItemId()) && id1.equals(recipes[i + 1].getItemId())))) {
+                recipe = recipes[i + 2];
+            }
+        }
+        return recipe;
+    }
+
+}